@@ -6,6 +6,8 @@ CREATE DATABASE IF NOT EXISTS test
 USE cosmoport;
 
 DROP TABLE IF EXISTS ship;
+-- the migrations are re-applied to the fresh table on the next start
+DROP TABLE IF EXISTS schema_version;
 
 CREATE TABLE ship
 (
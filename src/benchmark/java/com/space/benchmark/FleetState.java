@@ -0,0 +1,51 @@
+package com.space.benchmark;
+
+import com.space.generator.FleetDistribution;
+import com.space.generator.FleetGenerator;
+import com.space.service.rating.RatingEngine;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Application context over an embedded database holding {@code ships} synthetic ships, shared by all threads of
+ * a benchmark. The fleet is generated by {@link FleetGenerator} from a fixed seed, so every run sees the same data.
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+    @Param("10000")
+    public int ships;
+
+    public AnnotationConfigApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+        DataSource dataSource = context.getBean(DataSource.class);
+        try (Connection connection = dataSource.getConnection()) {
+            new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS ship");
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("benchmark-schema.sql"));
+            new FleetGenerator(new FleetDistribution(), 42, new RatingEngine()).insert(connection, ships);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
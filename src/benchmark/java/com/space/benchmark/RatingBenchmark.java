@@ -0,0 +1,89 @@
+package com.space.benchmark;
+
+import com.space.service.rating.RatingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating computation per ship: the {@link RatingEngine} single and batch paths against the original
+ * {@code Calendar}/{@code BigDecimal} implementation as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingBenchmark {
+    private static final int SHIPS = 1024;
+
+    private final RatingEngine ratingEngine = new RatingEngine();
+    private final boolean[] isUsed = new boolean[SHIPS];
+    private final int[] prodYear = new int[SHIPS];
+    private final double[] speed = new double[SHIPS];
+    private final Date[] prodDate = new Date[SHIPS];
+    private final double[] ratings = new double[SHIPS];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SHIPS; i++) {
+            isUsed[i] = random.nextBoolean();
+            prodYear[i] = 2800 + random.nextInt(220);
+            speed[i] = (random.nextInt(99) + 1) / 100.0;
+            prodDate[i] = new GregorianCalendar(prodYear[i], random.nextInt(12), 1).getTime();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHIPS)
+    public void legacyCalendarBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < SHIPS; i++) {
+            blackhole.consume(legacyRating(isUsed[i], prodDate[i], speed[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHIPS)
+    public void engineSingle(Blackhole blackhole) {
+        for (int i = 0; i < SHIPS; i++) {
+            blackhole.consume(ratingEngine.rate(isUsed[i], prodDate[i], speed[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHIPS)
+    public double[] engineBatch() {
+        ratingEngine.rate(isUsed, prodYear, speed, ratings, SHIPS);
+        return ratings;
+    }
+
+    private static double legacyRating(Boolean isUsed, Date prodDate, Double speed) {
+        double k = isUsed ? 0.5 : 1;
+        Calendar prodDateCal = Calendar.getInstance();
+        prodDateCal.setTime(prodDate);
+        double number1 = 80 * speed * k;
+        int currentYear = Calendar.getInstance().get(Calendar.YEAR) + 1000;
+        int prodYear = prodDateCal.get(Calendar.YEAR);
+        int number2 = currentYear - prodYear + 1;
+        return new BigDecimal(number1 / number2).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
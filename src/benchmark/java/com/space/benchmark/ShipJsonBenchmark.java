@@ -0,0 +1,62 @@
+package com.space.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.config.WebConfig;
+import com.space.generator.FleetDistribution;
+import com.space.generator.FleetGenerator;
+import com.space.model.Ship;
+import com.space.model.ShipView;
+import com.space.service.rating.RatingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a listing page with the {@code ObjectMapper} the REST controller uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipJsonBenchmark {
+
+    @Param({"3", "20", "100", "1000"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private List<ShipView> page;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = new WebConfig().objectMapper();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ShipView.class));
+        FleetGenerator generator = new FleetGenerator(new FleetDistribution(), 42, new RatingEngine());
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            Ship ship = generator.next();
+            ship.setId(id);
+            page.add(ShipView.of(ship));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,89 @@
+package com.space.benchmark;
+
+import com.space.controller.ShipOrder;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing and count queries through {@link ShipService} for the filter combinations the UI sends, at increasing
+ * page depths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShipQueryBenchmark {
+
+    public enum Filter {
+        NONE(null, null, null, null, null, null, null),
+        NAME("ori", null, null, null, null, null, null),
+        SHIP_TYPE_AND_USED(null, ShipType.MILITARY, false, null, null, null, null),
+        RANGES(null, null, null, 0.3, 0.8, 100, 5000),
+        ALL("a", ShipType.TRANSPORT, true, 0.1, 0.9, 10, 9000);
+
+        final String name;
+        final ShipType shipType;
+        final Boolean isUsed;
+        final Double minSpeed;
+        final Double maxSpeed;
+        final Integer minCrewSize;
+        final Integer maxCrewSize;
+
+        Filter(String name, ShipType shipType, Boolean isUsed, Double minSpeed, Double maxSpeed,
+               Integer minCrewSize, Integer maxCrewSize) {
+            this.name = name;
+            this.shipType = shipType;
+            this.isUsed = isUsed;
+            this.minSpeed = minSpeed;
+            this.maxSpeed = maxSpeed;
+            this.minCrewSize = minCrewSize;
+            this.maxCrewSize = maxCrewSize;
+        }
+    }
+
+    @Param
+    public Filter filter;
+
+    @Param({"0", "10", "100"})
+    public int pageNumber;
+
+    @Param({"ID", "RATING"})
+    public ShipOrder order;
+
+    private ShipService shipService;
+
+    @Setup
+    public void setup(FleetState fleet) {
+        shipService = fleet.getBean(ShipService.class);
+    }
+
+    @Benchmark
+    public List<ShipView> getFilteredShips() {
+        return shipService.getFilteredShips(pageNumber, 20, order, filter.name, null, filter.isUsed,
+                filter.minSpeed, filter.maxSpeed, filter.minCrewSize, filter.maxCrewSize, null, null,
+                filter.shipType, null, null);
+    }
+
+    @Benchmark
+    public long getCount() {
+        return shipService.getCount(filter.name, null, filter.shipType, null, null, filter.isUsed,
+                filter.minSpeed, filter.maxSpeed, filter.minCrewSize, filter.maxCrewSize, null, null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.validator.ShipValidator;
+import com.space.service.validator.Violation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a valid and an invalid ship, from several threads at once since bulk imports validate in
+ * parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShipValidatorBenchmark {
+
+    private final Ship valid = new Ship("Orion 7", "Mars", ShipType.MILITARY,
+            new GregorianCalendar(2995, 4, 12).getTime(), false, 0.5, 120, null);
+    private final Ship invalid = new Ship("", "Mars", null,
+            new GregorianCalendar(2100, 4, 12).getTime(), false, 1.5, 0, null);
+
+    @Benchmark
+    public List<Violation> validShip() {
+        return ShipValidator.validate(valid, true);
+    }
+
+    @Benchmark
+    public List<Violation> invalidShip() {
+        return ShipValidator.validate(invalid, true);
+    }
+}
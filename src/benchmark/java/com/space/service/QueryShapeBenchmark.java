@@ -0,0 +1,81 @@
+package com.space.service;
+
+import com.space.benchmark.FleetState;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.cache.ShipQueryShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query preparation without execution: a criteria query built and compiled per call, as the service used to do,
+ * against {@link ShipServiceImpl#createQuery} binding values into the cached template of the query shape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryShapeBenchmark {
+
+    private final ShipServiceImpl shipService = new ShipServiceImpl();
+    private EntityManager entityManager;
+    private CriteriaBuilder cb;
+    private double maxRating;
+
+    @Setup
+    public void setup(FleetState fleet) {
+        entityManager = fleet.getBean(EntityManagerFactory.class).createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+        shipService.setEntityManager(entityManager);
+        shipService.setQueryShapeCacheMaxSize(1024);
+        shipService.afterPropertiesSet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Benchmark
+    public TypedQuery<Ship> criteria() {
+        // a new value every call, as with real traffic, numeric literals end up inlined in the rendered query
+        maxRating += 0.01;
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+        query.where(cb.equal(root.get("shipType"), ShipType.MILITARY),
+                cb.equal(root.get("isUsed"), false),
+                cb.greaterThanOrEqualTo(root.get("prodDate").as(Date.class), new Date(0L)),
+                cb.ge(root.get("speed"), 0.1),
+                cb.le(root.get("rating"), maxRating));
+        query.orderBy(cb.asc(root.get("rating")));
+        return entityManager.createQuery(query.select(root));
+    }
+
+    @Benchmark
+    public TypedQuery<Ship> template() {
+        maxRating += 0.01;
+        return shipService.createQuery(Ship.class, ShipQueryShape.Kind.EXPORT, ShipOrder.RATING, null, null,
+                null, null, ShipType.MILITARY, 0L, null, false, 0.1, null, null, null, null, maxRating);
+    }
+}
@@ -1,11 +1,19 @@
 package com.space.config;
 
+import com.space.datasource.MeteredQueryInterceptor;
+import com.space.datasource.PooledDataSource;
+import com.space.datasource.ReplicaRoutingDataSource;
+import com.space.datasource.SchemaMigrator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -15,15 +23,22 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 @Configuration
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource({"classpath:db.properties", "classpath:cache.properties", "classpath:rating.properties", "classpath:metrics.properties", "classpath:async.properties"})
 public class AppConfig {
 
+    @Autowired
+    private Environment env;
+
     @Bean
+    @DependsOn("schemaMigrator")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -38,14 +53,57 @@ public class AppConfig {
 
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
+        Properties driverProperties = new Properties();
+        driverProperties.setProperty("cachePrepStmts", env.getProperty("db.mysql.cachePrepStmts", "true"));
+        driverProperties.setProperty("useServerPrepStmts", env.getProperty("db.mysql.useServerPrepStmts", "true"));
+        driverProperties.setProperty("rewriteBatchedStatements", env.getProperty("db.mysql.rewriteBatchedStatements", "true"));
+        driverProperties.setProperty("prepStmtCacheSize", env.getProperty("db.mysql.prepStmtCacheSize", "250"));
+        driverProperties.setProperty("prepStmtCacheSqlLimit", env.getProperty("db.mysql.prepStmtCacheSqlLimit", "2048"));
+        driverProperties.setProperty("useLocalSessionState", env.getProperty("db.mysql.useLocalSessionState", "true"));
+        if (env.getProperty("metrics.jdbc.enabled", Boolean.class, false))
+            driverProperties.setProperty("queryInterceptors", MeteredQueryInterceptor.class.getName());
+
+        String poolName = env.getProperty("db.pool.name", "cosmoport");
+        DataSource dataSource = pool(poolName, env.getRequiredProperty("db.url"), driverProperties);
+
+        if (env.acceptsProfiles(Profiles.of("replicas"))) {
+            List<DataSource> replicas = new ArrayList<>();
+            String[] urls = env.getProperty("db.replica.urls", String[].class, new String[0]);
+            for (int i = 0; i < urls.length; i++) {
+                replicas.add(pool(poolName + "-replica-" + i, urls[i].trim(), driverProperties));
+            }
+            dataSource = new ReplicaRoutingDataSource(dataSource, replicas,
+                    env.getProperty("db.replica.healthCheckPeriodMs", Long.class, 5_000L),
+                    env.getProperty("db.replica.stickyMs", Long.class, 1_000L),
+                    env.getProperty("db.replica.maxLagMs", Long.class, 5_000L));
+        }
+
         return dataSource;
     }
 
+    private DataSource pool(String poolName, String url, Properties driverProperties) {
+        return new PooledDataSource(
+                poolName,
+                env.getRequiredProperty("db.driver"),
+                url,
+                env.getRequiredProperty("db.username"),
+                env.getRequiredProperty("db.password"),
+                driverProperties,
+                env.getProperty("db.pool.maxSize", Integer.class, 20),
+                env.getProperty("db.pool.minIdle", Integer.class, 5),
+                env.getProperty("db.pool.idleTimeoutMs", Long.class, 600_000L),
+                env.getProperty("db.pool.connectionTimeoutMs", Long.class, 30_000L),
+                env.getProperty("db.pool.leakDetectionThresholdMs", Long.class, 0L));
+    }
+
+    @Bean
+    public SchemaMigrator schemaMigrator() {
+        SchemaMigrator migrator = new SchemaMigrator(dataSource(), "db/migration");
+        if (env.getProperty("db.migrate", Boolean.class, true))
+            migrator.migrate();
+        return migrator;
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -62,6 +120,9 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.jdbc.batch_size", env.getProperty("db.hibernate.batchSize", "1000"));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
 
         return properties;
     }
@@ -0,0 +1,77 @@
+package com.space.controller;
+
+import com.space.model.ShipView;
+import com.space.model.ShipType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+
+/**
+ * Servlet 3 async variants of the read endpoints of {@link MainController}, enabled with the {@code async} Spring
+ * profile. The work is handed to the {@link QueryExecutor} and the servlet thread returns to the container.
+ * <p>
+ * The mappings carry one more header condition than the synchronous ones, which makes them the more specific
+ * match; a request sending {@value #SYNC_HEADER} is still served synchronously.
+ */
+@RestController
+@RequestMapping("/rest")
+@Profile("async")
+public class AsyncShipController {
+
+    static final String SYNC_HEADER = "X-Sync";
+
+    @Autowired
+    private MainController mainController;
+
+    @Autowired
+    private QueryExecutor queryExecutor;
+
+    @RequestMapping(value = "/ships", method = RequestMethod.GET, headers = "!" + SYNC_HEADER)
+    public DeferredResult<ResponseEntity<List<ShipView>>> getFilteredShips(@RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+                                                       @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                                       @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                                                       @RequestParam(value = "name", required = false) String name,
+                                                       @RequestParam(value = "planet", required = false) String planet,
+                                                       @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                       @RequestParam(value = "after", required = false) Long after,
+                                                       @RequestParam(value = "before", required = false) Long before,
+                                                       @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                       @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                       @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                       @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                       @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                       @RequestParam(value = "minRating", required = false) Double minRating,
+                                                       @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        return queryExecutor.submit(() -> mainController.getFilteredShips(pageNumber, pageSize, order, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating,
+                cursor));
+    }
+
+    @RequestMapping(value = "/ships/count", method = RequestMethod.GET, headers = "!" + SYNC_HEADER)
+    public DeferredResult<ResponseEntity<Long>> getCountOfFilteredShips(@RequestParam(value = "count", required = false, defaultValue = "EXACT") CountMode count,
+                                                        @RequestParam(value = "name", required = false) String name,
+                                                        @RequestParam(value = "planet", required = false) String planet,
+                                                        @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                        @RequestParam(value = "after", required = false) Long after,
+                                                        @RequestParam(value = "before", required = false) Long before,
+                                                        @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                        @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                        @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                        @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                        @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                        @RequestParam(value = "minRating", required = false) Double minRating,
+                                                        @RequestParam(value = "maxRating", required = false) Double maxRating) {
+        return queryExecutor.submit(() -> mainController.getCountOfFilteredShips(count, name, planet, shipType, after, before,
+                isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating));
+    }
+
+    @RequestMapping(value = "/ships/{id}", method = RequestMethod.GET, headers = "!" + SYNC_HEADER)
+    public DeferredResult<ResponseEntity<ShipView>> getShipById(@PathVariable("id") Long id) {
+        return queryExecutor.submit(() -> mainController.getShipById(id));
+    }
+}
@@ -0,0 +1,10 @@
+package com.space.controller;
+
+public enum CountMode {
+    EXACT, // default
+    /** The last exact count, or a maintained counter, possibly missing the latest writes. */
+    CACHED,
+    /** Estimated from per shipType and isUsed histograms, with bounds. */
+    ESTIMATE,
+    NONE
+}
@@ -1,26 +1,54 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.space.exception.BadRequestException;
 import com.space.exception.ResourceNotFoundException;
 import com.space.model.Ship;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipCount;
+import com.space.service.ShipImportResult;
+import com.space.service.ShipPage;
 import com.space.service.ShipService;
+import com.space.service.ShipStats;
+import com.space.service.metrics.QueryContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/rest")
 public class MainController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String COUNT_MODE_HEADER = "X-Count-Mode";
+    static final String COUNT_LOWER_HEADER = "X-Count-Lower";
+    static final String COUNT_UPPER_HEADER = "X-Count-Upper";
+    static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private ShipService shipService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The next keyset cursor goes in a header, built here so that the async variant never touches the response.
+     */
     @RequestMapping(value = "/ships",method = RequestMethod.GET)
-    @ResponseStatus(HttpStatus.OK)
-    public  @ResponseBody List<Ship> getFilteredShips(@RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+    public ResponseEntity<List<ShipView>> getFilteredShips(@RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
                                           @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
                                           @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
                                           @RequestParam(value = "name", required = false) String name,
@@ -34,15 +62,96 @@ public class MainController {
                                           @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
                                           @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
                                           @RequestParam(value = "minRating", required = false) Double minRating,
-                                          @RequestParam(value = "maxRating", required = false) Double maxRating) {
-        List<Ship> ships = shipService.getFilteredShips(pageNumber, pageSize, order, name, planet, isUsed, minSpeed, maxSpeed,
+                                          @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                          @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            List<ShipView> ships = shipService.getFilteredShips(pageNumber, pageSize, order, name, planet, isUsed, minSpeed, maxSpeed,
+                    minCrewSize, maxCrewSize, minRating, maxRating, shipType, before, after);
+            QueryContext.rowsReturned(ships.size());
+            return ResponseEntity.ok(ships);
+        }
+
+        // keyset mode: an empty cursor asks for the first page, every full page hands out the next cursor
+        ShipCursor lastSeen = cursor.isEmpty() ? null : ShipCursor.decode(cursor);
+        List<ShipView> ships = shipService.getFilteredShips(lastSeen, pageSize, order, name, planet, isUsed, minSpeed, maxSpeed,
                 minCrewSize, maxCrewSize, minRating, maxRating, shipType, before, after);
-        return ships;
+        QueryContext.rowsReturned(ships.size());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (!ships.isEmpty() && ships.size() == pageSize) {
+            builder.header(NEXT_CURSOR_HEADER, ShipCursor.of(order, ships.get(ships.size() - 1)).encode());
+        }
+        return builder.body(ships);
     }
 
-    @RequestMapping(value = "/ships/count", method = RequestMethod.GET)
+    @RequestMapping(value = "/ships/page", method = RequestMethod.GET)
     @ResponseStatus(HttpStatus.OK)
-    public @ResponseBody long getCountOfFilteredShips(@RequestParam(value = "name", required = false) String name,
+    public @ResponseBody ShipPage getPageOfFilteredShips(@RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+                                              @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                              @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                                              @RequestParam(value = "count", required = false, defaultValue = "EXACT") CountMode count,
+                                              @RequestParam(value = "name", required = false) String name,
+                                              @RequestParam(value = "planet", required = false) String planet,
+                                              @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                              @RequestParam(value = "after", required = false) Long after,
+                                              @RequestParam(value = "before", required = false) Long before,
+                                              @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                              @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                              @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                              @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                              @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                              @RequestParam(value = "minRating", required = false) Double minRating,
+                                              @RequestParam(value = "maxRating", required = false) Double maxRating) {
+        ShipPage page = shipService.getShipPage(pageNumber, pageSize, order, count, name, planet, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating, shipType, before, after);
+        QueryContext.rowsReturned(page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Writes every ship matching the filters as newline-delimited JSON while the rows stream in from the database.
+     */
+    @RequestMapping(value = "/ships/export", method = RequestMethod.GET)
+    public void exportShips(@RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                            @RequestParam(value = "name", required = false) String name,
+                            @RequestParam(value = "planet", required = false) String planet,
+                            @RequestParam(value = "shipType", required = false) ShipType shipType,
+                            @RequestParam(value = "after", required = false) Long after,
+                            @RequestParam(value = "before", required = false) Long before,
+                            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                            @RequestParam(value = "minRating", required = false) Double minRating,
+                            @RequestParam(value = "maxRating", required = false) Double maxRating,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        // flushing after every ship would turn each row into its own network write
+        ObjectWriter writer = objectMapper.writerFor(Ship.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long exported = shipService.exportShips(order, name, planet, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize,
+                    minRating, maxRating, shipType, before, after, ship -> {
+                        try {
+                            writer.writeValue(generator, ship);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            if (exported > 0)
+                generator.writeRaw('\n');
+            QueryContext.rowsReturned(exported);
+        }
+    }
+
+    /**
+     * The body is the count alone, the mode that produced it and the bounds on the true count go in headers.
+     */
+    @RequestMapping(value = "/ships/count", method = RequestMethod.GET)
+    public ResponseEntity<Long> getCountOfFilteredShips(@RequestParam(value = "count", required = false, defaultValue = "EXACT") CountMode count,
+                                           @RequestParam(value = "name", required = false) String name,
                                            @RequestParam(value = "planet", required = false) String planet,
                                            @RequestParam(value = "shipType", required = false) ShipType shipType,
                                            @RequestParam(value = "after", required = false) Long after,
@@ -54,9 +163,41 @@ public class MainController {
                                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
                                            @RequestParam(value = "minRating", required = false) Double minRating,
                                            @RequestParam(value = "maxRating", required = false) Double maxRating) {
-        return shipService.getCount(name, planet, shipType, after, before, isUsed,
+        if (count == CountMode.NONE)
+            throw new BadRequestException("count=NONE leaves nothing to return");
+
+        ShipCount shipCount = shipService.getCount(count, name, planet, shipType, after, before, isUsed,
                 minSpeed, maxSpeed, minCrewSize, maxCrewSize,
                 minRating, maxRating);
+        return ResponseEntity.ok()
+                .header(COUNT_MODE_HEADER, shipCount.getMode().name())
+                .header(COUNT_LOWER_HEADER, String.valueOf(shipCount.getLower()))
+                .header(COUNT_UPPER_HEADER, String.valueOf(shipCount.getUpper()))
+                .body(shipCount.getCount());
+    }
+
+    /**
+     * Count, average speed and rating, crew total and used share per group of the matching ships.
+     */
+    @RequestMapping(value = "/ships/stats", method = RequestMethod.GET)
+    @ResponseStatus(HttpStatus.OK)
+    public @ResponseBody ShipStats getStats(@RequestParam(value = "groupBy", required = false, defaultValue = "NONE") ShipGroupBy groupBy,
+                                            @RequestParam(value = "name", required = false) String name,
+                                            @RequestParam(value = "planet", required = false) String planet,
+                                            @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                            @RequestParam(value = "after", required = false) Long after,
+                                            @RequestParam(value = "before", required = false) Long before,
+                                            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                            @RequestParam(value = "minRating", required = false) Double minRating,
+                                            @RequestParam(value = "maxRating", required = false) Double maxRating) {
+        ShipStats stats = shipService.getStats(groupBy, name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        QueryContext.rowsReturned(stats.getGroups().size());
+        return stats;
     }
 
     @RequestMapping(value = "/ships", method = RequestMethod.POST)
@@ -67,17 +208,30 @@ public class MainController {
         return createdShip;
     }
 
-    @RequestMapping(value = "/ships/{id}", method = RequestMethod.GET)
+    /**
+     * Imports a JSON array or newline-delimited JSON stream of ships, parsing the body as it arrives.
+     */
+    @RequestMapping(value = "/ships/bulk", method = RequestMethod.POST)
     @ResponseStatus(HttpStatus.OK)
-    public @ResponseBody Ship getShipById(@PathVariable("id") Long id) {
+    public @ResponseBody ShipImportResult importShips(InputStream body) throws IOException {
+        try (MappingIterator<Ship> ships = objectMapper.readerFor(Ship.class).readValues(body)) {
+            return shipService.importShips(ships);
+        }
+    }
+
+    /**
+     * Tags the ship with its row version as a strong ETag, a matching {@code If-None-Match} gets a 304 without body.
+     */
+    @RequestMapping(value = "/ships/{id}", method = RequestMethod.GET)
+    public ResponseEntity<ShipView> getShipById(@PathVariable("id") Long id) {
         if (id == null || id <= 0) {
             throw new BadRequestException();
         }
-        Ship ship = shipService.get(id);
+        ShipView ship = shipService.get(id);
         if (ship == null) {
             throw new ResourceNotFoundException();
         }
-        return ship;
+        return ResponseEntity.ok().eTag("\"" + ship.getVersion() + "\"").body(ship);
     }
 
     @RequestMapping(value = "/ships/{id}", method = RequestMethod.POST)
@@ -100,12 +254,46 @@ public class MainController {
             throw new BadRequestException();
         }
 
-        Ship ship = shipService.get(id);
-        if (ship == null) {
-            throw new ResourceNotFoundException();
+        shipService.deleteById(id);
+    }
+
+    /**
+     * Deletes either the listed ids or every ship matching the filters, returns how many ships were deleted.
+     * A request with neither is refused rather than emptying the table.
+     */
+    @RequestMapping(value = "/ships", method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.OK)
+    public @ResponseBody long deleteShips(@RequestParam(value = "ids", required = false) List<Long> ids,
+                                          @RequestParam(value = "name", required = false) String name,
+                                          @RequestParam(value = "planet", required = false) String planet,
+                                          @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                          @RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "before", required = false) Long before,
+                                          @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                          @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                          @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                          @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                          @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                          @RequestParam(value = "minRating", required = false) Double minRating,
+                                          @RequestParam(value = "maxRating", required = false) Double maxRating) {
+        boolean filtered = name != null || planet != null || shipType != null || after != null || before != null
+                || isUsed != null || minSpeed != null || maxSpeed != null || minCrewSize != null || maxCrewSize != null
+                || minRating != null || maxRating != null;
+        if ((ids == null) == !filtered) {
+            throw new BadRequestException("Either ids or filters are required, not both");
         }
 
-        shipService.deleteById(id);
+        long deleted;
+        if (ids != null) {
+            if (ids.contains(null)) {
+                throw new BadRequestException("Invalid id");
+            }
+            deleted = shipService.deleteByIds(ids);
+        } else {
+            deleted = shipService.deleteFilteredShips(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        }
+        return deleted;
     }
 
 }
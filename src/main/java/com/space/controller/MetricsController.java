@@ -0,0 +1,32 @@
+package com.space.controller;
+
+import com.space.service.metrics.QueryMetrics;
+import com.space.service.metrics.QueryStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/rest/metrics")
+public class MetricsController {
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    /**
+     * Latency percentiles, statement and row counts per endpoint and filter signature, slowest p99 first.
+     */
+    @RequestMapping(value = "/queries", method = RequestMethod.GET)
+    @ResponseStatus(HttpStatus.OK)
+    public @ResponseBody List<QueryStats.View> getQueryMetrics() {
+        return queryMetrics.snapshot();
+    }
+
+    @RequestMapping(value = "/queries", method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.OK)
+    public void resetQueryMetrics() {
+        queryMetrics.reset();
+    }
+}
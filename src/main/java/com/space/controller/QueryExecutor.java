@@ -0,0 +1,94 @@
+package com.space.controller;
+
+import com.space.exception.ServiceUnavailableException;
+import com.space.service.metrics.QueryContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs database-bound request work on a bounded pool so servlet threads are released while queries run.
+ * <p>
+ * At most {@code async.threads} queries run at once and {@code async.queueCapacity} wait. Beyond that new requests
+ * are refused with a 503 right away, and a request whose query has not completed within {@code async.timeoutMs}
+ * gets a 503 as well; a query still waiting in the queue then never starts.
+ */
+@Component
+@Profile("async")
+public class QueryExecutor implements InitializingBean, DisposableBean {
+
+    private int threads;
+    private int queueCapacity;
+    private long timeoutMs;
+    private ThreadPoolExecutor executor;
+
+    @Value("${async.threads:16}")
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    @Value("${async.queueCapacity:100}")
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Value("${async.timeoutMs:5000}")
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public <T> DeferredResult<T> submit(Supplier<T> query) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+        QueryContext context = QueryContext.current();
+        Future<?> future;
+        try {
+            future = executor.submit(() -> {
+                if (result.isSetOrExpired())
+                    return;
+                QueryContext.attach(context);
+                try {
+                    result.setResult(query.get());
+                } catch (RuntimeException | Error e) {
+                    result.setErrorResult(e);
+                } finally {
+                    QueryContext.detach();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many queries in progress");
+        }
+        result.onTimeout(() -> {
+            future.cancel(false);
+            result.setErrorResult(new ServiceUnavailableException("Query timed out after " + timeoutMs + "ms"));
+        });
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.space.controller;
+
+import com.space.service.metrics.QueryContext;
+import com.space.service.metrics.QueryMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures every REST request under its endpoint pattern and normalized filter signature: the names of the filters
+ * present, in a fixed order, plus the sort order, e.g. {@code shipType,isUsed,maxRating order=RATING}. Filter values
+ * are left out so that all requests of the same shape share one histogram.
+ */
+@Component
+public class QueryMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String CONTEXT_ATTRIBUTE = QueryMetricsInterceptor.class.getName() + ".context";
+
+    private static final List<String> FILTERS = Arrays.asList("name", "planet", "shipType", "after", "before",
+            "isUsed", "minSpeed", "maxSpeed", "minCrewSize", "maxCrewSize", "minRating", "maxRating", "cursor");
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the dispatch that completes an async request continues the measurement started by the first one
+        QueryContext started = (QueryContext) request.getAttribute(CONTEXT_ATTRIBUTE);
+        if (started != null) {
+            request.removeAttribute(CONTEXT_ATTRIBUTE);
+            QueryContext.attach(started);
+        } else {
+            QueryContext.begin(endpoint(request), signature(request));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(CONTEXT_ATTRIBUTE, QueryContext.current());
+        QueryContext.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryContext context = QueryContext.end();
+        if (context != null)
+            queryMetrics.record(context);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    static String signature(HttpServletRequest request) {
+        StringBuilder signature = new StringBuilder();
+        for (String filter : FILTERS) {
+            String value = request.getParameter(filter);
+            if (value != null && !value.isEmpty()) {
+                if (signature.length() > 0)
+                    signature.append(',');
+                signature.append(filter);
+            }
+        }
+        if (signature.length() == 0)
+            signature.append('-');
+
+        String order = request.getParameter("order");
+        if (order != null) {
+            try {
+                signature.append(" order=").append(ShipOrder.valueOf(order));
+            } catch (IllegalArgumentException e) {
+                // rejected by the controller, keep garbage out of the signature
+            }
+        }
+        return signature.toString();
+    }
+}
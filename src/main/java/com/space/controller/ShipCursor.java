@@ -0,0 +1,102 @@
+package com.space.controller;
+
+import com.space.exception.BadRequestException;
+import com.space.model.Ship;
+import com.space.model.ShipView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset pagination token: the {@link ShipOrder} sort value of the last ship of a page plus its id
+ * as a tiebreaker. Clients only pass the encoded form back, they never build it themselves.
+ */
+public class ShipCursor {
+    private static final String SEPARATOR = ":";
+
+    private final ShipOrder order;
+    private final Object value;
+    private final long id;
+
+    private ShipCursor(ShipOrder order, Object value, long id) {
+        this.order = order;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ShipCursor of(ShipOrder order, Ship ship) {
+        return of(order, ship.getId(), ship.getSpeed(), ship.getProdDate(), ship.getRating());
+    }
+
+    public static ShipCursor of(ShipOrder order, ShipView ship) {
+        return of(order, ship.getId(), ship.getSpeed(), ship.getProdDate(), ship.getRating());
+    }
+
+    private static ShipCursor of(ShipOrder order, long id, Double speed, Date prodDate, Double rating) {
+        Object value;
+        switch (order) {
+            case SPEED:
+                value = speed;
+                break;
+            case DATE:
+                value = prodDate;
+                break;
+            case RATING:
+                value = rating;
+                break;
+            default:
+                value = null;
+        }
+        return new ShipCursor(order, value, id);
+    }
+
+    public static ShipCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new BadRequestException("Malformed cursor");
+            }
+            ShipOrder order = ShipOrder.valueOf(parts[0]);
+            Object value;
+            switch (order) {
+                case SPEED:
+                case RATING:
+                    value = Double.valueOf(parts[1]);
+                    break;
+                case DATE:
+                    value = new Date(Long.parseLong(parts[1]));
+                    break;
+                default:
+                    value = null;
+            }
+            return new ShipCursor(order, value, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed cursor", e);
+        }
+    }
+
+    public String encode() {
+        String encodedValue;
+        if (value instanceof Date) {
+            encodedValue = String.valueOf(((Date) value).getTime());
+        } else {
+            encodedValue = value == null ? "" : value.toString();
+        }
+        String raw = order.name() + SEPARATOR + encodedValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
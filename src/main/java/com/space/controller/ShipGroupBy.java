@@ -0,0 +1,22 @@
+package com.space.controller;
+
+public enum ShipGroupBy {
+    NONE(null), // default
+    SHIP_TYPE("s.shipType"),
+    PLANET("s.planet"),
+    IS_USED("s.isUsed"),
+    PROD_YEAR("year(s.prodDate)");
+
+    private String expression;
+
+    ShipGroupBy(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * The JPQL grouping expression, {@code null} for a single group.
+     */
+    public String getExpression() {
+        return expression;
+    }
+}
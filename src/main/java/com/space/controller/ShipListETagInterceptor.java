@@ -0,0 +1,61 @@
+package com.space.controller;
+
+import com.space.service.ShipChangeTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Conditional GET for the ship listings. Their weak ETag is built in memory from the {@link ShipChangeTracker}
+ * counts, so a matching {@code If-None-Match} is answered with 304 before the handler runs, without touching the
+ * database. This node's writes change the tag as they commit, writes of other nodes once the tracker's poll notices
+ * them, within {@code changes.pollMs}.
+ * <p>
+ * Tags start with a random id of this process: the counts restart with it and differ between nodes, so a client
+ * switching nodes refetches once instead of matching an unrelated tag.
+ * <p>
+ * With the {@code replicas} profile a listing may come from a replica up to {@code db.replica.maxLagMs} behind the
+ * counts. For that long after any change no tag is handed out and no 304 is answered, the listing is served in full;
+ * afterwards the replicas have caught up with the tag.
+ */
+@Component
+public class ShipListETagInterceptor implements HandlerInterceptor {
+
+    private final String processId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    @Autowired
+    private ShipChangeTracker changeTracker;
+
+    @Autowired
+    private Environment environment;
+
+    private long maxLagMs;
+
+    @Value("${db.replica.maxLagMs:5000}")
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the dispatch completing an async listing was already checked when it started
+        if (!"GET".equals(request.getMethod()) || request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;
+        if (environment.acceptsProfiles(Profiles.of("replicas")) && changeTracker.changedWithin(maxLagMs))
+            return true;
+
+        // read before the handler queries, a write in between then only costs the client one refetch
+        String etag = "W/\"" + processId + "-" + changeTracker.getOwnChanges() + "-"
+                + changeTracker.getForeignChanges() + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
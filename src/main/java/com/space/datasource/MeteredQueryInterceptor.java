@@ -0,0 +1,56 @@
+package com.space.datasource;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+import com.space.service.metrics.QueryContext;
+
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Reports every statement execution with its SQL and duration, and the rows it fetched, to the {@link QueryContext}
+ * of the calling thread. Installed through the Connector/J {@code queryInterceptors} connection property, so the
+ * driver calls it once per statement and connections, statements and result sets stay unwrapped.
+ * <p>
+ * The driver creates one interceptor per connection, which is only ever used by one thread at a time. Statements
+ * that fail are not reported, rows of streamed result sets are not counted.
+ */
+public class MeteredQueryInterceptor implements QueryInterceptor {
+    private long startNanos;
+
+    @Override
+    public QueryInterceptor init(MysqlConnection connection, Properties properties, Log log) {
+        return this;
+    }
+
+    @Override
+    public <T extends Resultset> T preProcess(Supplier<String> sql, Query query) {
+        startNanos = System.nanoTime();
+        return null;
+    }
+
+    @Override
+    public <T extends Resultset> T postProcess(Supplier<String> sql, Query query, T resultSet,
+                                               ServerSession serverSession) {
+        QueryContext.statementExecuted(sql, System.nanoTime() - startNanos);
+        if (resultSet != null && resultSet.hasRows()) {
+            int rows = resultSet.getRows().size();
+            if (rows > 0)
+                QueryContext.rowsFetched(rows);
+        }
+        return resultSet;
+    }
+
+    @Override
+    public boolean executeTopLevelOnly() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
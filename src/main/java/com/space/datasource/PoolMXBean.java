@@ -0,0 +1,15 @@
+package com.space.datasource;
+
+/**
+ * Connection pool statistics published over JMX.
+ */
+public interface PoolMXBean {
+    int getActiveConnections();
+    int getIdleConnections();
+    int getTotalConnections();
+    int getThreadsAwaitingConnection();
+    long getConnectionsCreated();
+    long getConnectionTimeouts();
+    long getLeaksDetected();
+    double getAverageWaitMillis();
+}
@@ -0,0 +1,357 @@
+package com.space.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool. Physical connections come from a {@link DriverManagerDataSource} and are handed out
+ * as proxies whose {@code close()} returns them to the pool.
+ * <p>
+ * At most {@code maxSize} connections are borrowed at a time, callers wait up to {@code connectionTimeout} for one.
+ * A housekeeper retires connections idle longer than {@code idleTimeout} down to {@code minIdle}, tops the pool up
+ * to {@code minIdle} and reports connections held longer than {@code leakDetectionThreshold} together with the
+ * stack that borrowed them. Statistics are published as the {@code com.space:type=Pool,name=<poolName>} MXBean.
+ */
+public class PooledDataSource extends AbstractDataSource implements Closeable, PoolMXBean {
+    private static final Logger log = LoggerFactory.getLogger(PooledDataSource.class);
+    private static final long HOUSEKEEPING_PERIOD_MS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DriverManagerDataSource driver;
+    private final String poolName;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMs;
+    private final long connectionTimeoutMs;
+    private final long leakDetectionThresholdMs;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public PooledDataSource(String poolName, String driverClassName, String url, String username, String password,
+                            Properties connectionProperties, int maxSize, int minIdle, long idleTimeoutMs,
+                            long connectionTimeoutMs, long leakDetectionThresholdMs) {
+        this.driver = new DriverManagerDataSource(url, username, password);
+        this.driver.setDriverClassName(driverClassName);
+        this.driver.setConnectionProperties(connectionProperties);
+        this.poolName = poolName;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, poolName + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::houseKeep, 0, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS);
+        registerMBean();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed.get())
+            throw new SQLException("Pool " + poolName + " is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("Pool " + poolName + " timed out after "
+                        + connectionTimeoutMs + "ms waiting for a connection (" + getActiveConnections() + " active)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        waitNanos.addAndGet(System.nanoTime() - start);
+        borrows.incrementAndGet();
+
+        PooledConnection connection;
+        try {
+            connection = takeIdle();
+            if (connection == null)
+                connection = open();
+            connection.borrowed(leakDetectionThresholdMs > 0 ? new Exception("Connection borrowed here") : null);
+            borrowed.put(connection, Boolean.TRUE);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        // the pool may have been closed and drained meanwhile, closing the proxy discards the connection
+        if (closed.get()) {
+            connection.proxy.close();
+            throw new SQLException("Pool " + poolName + " is closed");
+        }
+        return connection.proxy;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true))
+            return;
+        housekeeper.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            discard(connection);
+        }
+        unregisterMBean();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return created.get();
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return timeouts.get();
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return leaks.get();
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long count = borrows.get();
+        return count == 0 ? 0 : waitNanos.get() / 1_000_000.0 / count;
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (connection.isValid())
+                return connection;
+            discard(connection);
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(driver.getConnection());
+        total.incrementAndGet();
+        created.incrementAndGet();
+        return connection;
+    }
+
+    private void release(PooledConnection connection) {
+        borrowed.remove(connection);
+        try {
+            if (closed.get() || connection.broken || !connection.reset()) {
+                discard(connection);
+            } else {
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        total.decrementAndGet();
+        try {
+            connection.physical.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close connection of pool {}", poolName, e);
+        }
+    }
+
+    private void houseKeep() {
+        try {
+            long now = System.currentTimeMillis();
+            // idle is kept most-recently-used first, so the stale connections sit at the tail
+            PooledConnection connection;
+            while (idle.size() > minIdle && (connection = idle.peekLast()) != null
+                    && now - connection.lastUsed > idleTimeoutMs) {
+                if (idle.removeLastOccurrence(connection))
+                    discard(connection);
+            }
+            while (!closed.get() && total.get() < minIdle) {
+                idle.offerLast(open());
+            }
+            if (leakDetectionThresholdMs > 0) {
+                for (PooledConnection borrowedConnection : borrowed.keySet()) {
+                    borrowedConnection.checkLeak(now);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Housekeeping of pool {} failed", poolName, e);
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName());
+        } catch (Exception e) {
+            log.warn("Could not register pool {} statistics", poolName, e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName());
+        } catch (Exception e) {
+            log.debug("Could not unregister pool {} statistics", poolName, e);
+        }
+    }
+
+    private ObjectName objectName() throws Exception {
+        return new ObjectName("com.space:type=Pool,name=" + poolName);
+    }
+
+    private class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final AtomicBoolean open = new AtomicBoolean();
+        private volatile boolean broken;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile Exception borrowedAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class[]{Connection.class}, this);
+        }
+
+        void borrowed(Exception borrowedAt) {
+            this.borrowedAt = borrowedAt;
+            this.lastUsed = System.currentTimeMillis();
+            this.open.set(true);
+        }
+
+        boolean isValid() {
+            try {
+                // recently used connections are trusted, a validation round trip per borrow costs too much
+                return System.currentTimeMillis() - lastUsed < HOUSEKEEPING_PERIOD_MS
+                        || physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        boolean reset() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly())
+                    physical.setReadOnly(false);
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void checkLeak(long now) {
+            Exception stack = borrowedAt;
+            if (stack != null && now - lastUsed > leakDetectionThresholdMs) {
+                borrowedAt = null;
+                leaks.incrementAndGet();
+                log.warn("Connection of pool {} held for more than {}ms, possible leak", poolName,
+                        leakDetectionThresholdMs, stack);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (open.compareAndSet(true, false)) {
+                        lastUsed = System.currentTimeMillis();
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !open.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return poolName + " connection " + physical;
+                default:
+                    if (!open.get())
+                        throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    // SQL state class 08 means the connection itself is gone
+                    if (state != null && state.startsWith("08"))
+                        broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.space.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Sends connections of read-only transactions to the replicas, round robin over the healthy ones, and everything
+ * else to the primary. Replicas are validated every {@code healthCheckPeriodMs}; one failing to hand out a
+ * connection is skipped until it passes a check again, and with no healthy replica reads fall back to the primary.
+ * <p>
+ * For {@code stickyMs} after a write was committed on the primary, read-only transactions stay on the primary too,
+ * so that a client reading right after its write doesn't miss it on a lagging replica. The window is shared by all
+ * clients. A primary connection counts as having written once anything but a query was prepared or executed on it;
+ * inside a transaction the window starts when that transaction commits, outside one when the connection is closed.
+ * <p>
+ * Reads served by a replica within {@code maxLagMs} of the last write may still miss it, {@link #isLaggingRead()}
+ * tells callers not to cache them.
+ * <p>
+ * Transaction managers take the connection before the read-only flag of the transaction is published, so the
+ * physical connection is only fetched on first use, through a {@link LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private static final ThreadLocal<Boolean> LAGGING_READ = ThreadLocal.withInitial(() -> false);
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long healthCheckPeriodMs,
+                                    long stickyMs, long maxLagMs) {
+        super(new Router(primary, replicas, healthCheckPeriodMs, stickyMs, maxLagMs));
+    }
+
+    /**
+     * Whether the last connection the current thread was given came from a replica that may not have caught up
+     * with the last write yet.
+     */
+    public static boolean isLaggingRead() {
+        return LAGGING_READ.get();
+    }
+
+    /**
+     * Validates every replica now instead of waiting for the next scheduled check.
+     */
+    public void checkHealth() {
+        router().checkHealth();
+    }
+
+    public int getHealthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : router().replicas) {
+            if (replica.healthy)
+                healthy++;
+        }
+        return healthy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Router router = router();
+        router.healthChecker.shutdownNow();
+        closeIfCloseable(router.primary);
+        for (Replica replica : router.replicas) {
+            closeIfCloseable(replica.dataSource);
+        }
+    }
+
+    private Router router() {
+        return (Router) obtainTargetDataSource();
+    }
+
+    private static void closeIfCloseable(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable)
+            ((Closeable) dataSource).close();
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final String name;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource, String name) {
+            this.dataSource = dataSource;
+            this.name = name;
+        }
+    }
+
+    private static final class Router extends AbstractDataSource {
+        private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+        private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+        private static final Pattern QUERY =
+                Pattern.compile("^[\\s(]*(select|show|explain|describe|desc)\\b", Pattern.CASE_INSENSITIVE);
+
+        private final DataSource primary;
+        private final List<Replica> replicas = new ArrayList<>();
+        private final long stickyNanos;
+        private final long maxLagNanos;
+        private final AtomicInteger next = new AtomicInteger();
+        private final ScheduledExecutorService healthChecker;
+        private volatile long lastWriteNanos;
+        private volatile boolean written;
+
+        Router(DataSource primary, List<DataSource> replicas, long healthCheckPeriodMs, long stickyMs,
+               long maxLagMs) {
+            this.primary = primary;
+            for (int i = 0; i < replicas.size(); i++) {
+                this.replicas.add(new Replica(replicas.get(i), "replica-" + i));
+            }
+            this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+            this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (healthCheckPeriodMs > 0 && !replicas.isEmpty())
+                this.healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckPeriodMs, healthCheckPeriodMs,
+                        TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            LAGGING_READ.set(false);
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+                return trackWrites(primary.getConnection());
+            long sinceWrite = System.nanoTime() - lastWriteNanos;
+            if (written && sinceWrite < stickyNanos)
+                return primary.getConnection();
+
+            int size = replicas.size();
+            int start = size == 0 ? 0 : Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy)
+                    continue;
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    LAGGING_READ.set(written && sinceWrite < maxLagNanos);
+                    return connection;
+                } catch (SQLTransientConnectionException e) {
+                    // an exhausted pool, not a dead replica
+                    log.debug("No connection from {}, trying the next replica", replica.name, e);
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    log.warn("Replica {} failed, routing its reads elsewhere until it passes a health check",
+                            replica.name, e);
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Routed connections always use the configured credentials");
+        }
+
+        private Connection trackWrites(Connection connection) {
+            WriteTracker tracker = new WriteTracker(connection);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                tracker.inTransaction = true;
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        if (tracker.wrote)
+                            markWrite();
+                    }
+                });
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class[]{Connection.class}, tracker);
+        }
+
+        private void markWrite() {
+            lastWriteNanos = System.nanoTime();
+            written = true;
+        }
+
+        private static boolean isQuery(Object sql) {
+            return sql instanceof String && QUERY.matcher((String) sql).lookingAt();
+        }
+
+        private void checkHealth() {
+            for (Replica replica : replicas) {
+                boolean healthy;
+                try (Connection connection = replica.dataSource.getConnection()) {
+                    healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                } catch (SQLTransientConnectionException e) {
+                    continue;
+                } catch (SQLException | RuntimeException e) {
+                    healthy = false;
+                }
+                if (healthy != replica.healthy)
+                    log.info("Replica {} is {}", replica.name, healthy ? "healthy again" : "unhealthy");
+                replica.healthy = healthy;
+            }
+        }
+
+        /**
+         * Watches a primary connection, and the statements created on it, for SQL other than queries.
+         */
+        private final class WriteTracker implements InvocationHandler {
+            private final Connection target;
+            private boolean inTransaction;
+            private volatile boolean wrote;
+
+            WriteTracker(Connection target) {
+                this.target = target;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.startsWith("prepare") && !isQuery(args[0]))
+                    wrote = true;
+                else if (name.equals("close") && wrote && !inTransaction)
+                    markWrite();
+
+                Object result = forward(target, method, args);
+                if (name.equals("createStatement") && result != null)
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class[]{Statement.class},
+                            (statement, statementMethod, statementArgs) -> {
+                                String statementName = statementMethod.getName();
+                                if ((statementName.startsWith("execute") || statementName.equals("addBatch"))
+                                        && statementArgs != null && !isQuery(statementArgs[0]))
+                                    wrote = true;
+                                if (statementName.equals("getConnection"))
+                                    return proxy;
+                                return forward(result, statementMethod, statementArgs);
+                            });
+                return result;
+            }
+
+            private Object forward(Object target, Method method, Object[] args) throws Throwable {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        }
+    }
+}
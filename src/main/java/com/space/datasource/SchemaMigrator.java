@@ -0,0 +1,130 @@
+package com.space.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.FileCopyUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts {@code V<version>__<description>.sql} found under {@code location} in version
+ * order, each exactly once. Applied versions are recorded with a checksum in {@code schema_version}, a script that
+ * changed after it was applied is reported but not run again.
+ * <p>
+ * MySQL commits DDL implicitly, so a failing script is not rolled back; it stays unrecorded and is retried on the
+ * next start once fixed.
+ */
+public class SchemaMigrator {
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.location = location;
+    }
+
+    /**
+     * Returns the number of scripts applied.
+     */
+    public int migrate() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                + "version INT NOT NULL PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "checksum BIGINT NOT NULL, "
+                + "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum FROM schema_version",
+                rs -> {
+                    applied.put(rs.getInt(1), rs.getLong(2));
+                });
+
+        int count = 0;
+        for (Migration migration : findMigrations()) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum)
+                    log.warn("Migration V{} {} changed after it was applied", migration.version, migration.description);
+                continue;
+            }
+
+            log.info("Applying migration V{} {}", migration.version, migration.description);
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, migration.script);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Migration V" + migration.version + " failed", e);
+            }
+            jdbcTemplate.update("INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)",
+                    migration.version, migration.description, migration.checksum);
+            count++;
+        }
+        return count;
+    }
+
+    private List<Migration> findMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        try {
+            for (Resource script : new PathMatchingResourcePatternResolver().getResources("classpath*:" + location + "/V*__*.sql")) {
+                Matcher matcher = SCRIPT_NAME.matcher(script.getFilename());
+                if (!matcher.matches()) {
+                    log.warn("Ignoring migration script with an unexpected name: {}", script.getFilename());
+                    continue;
+                }
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), script, checksum(script)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list migrations in " + location, e);
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version)
+                throw new IllegalStateException("Duplicate migration version V" + migrations.get(i).version);
+        }
+        return migrations;
+    }
+
+    private static long checksum(Resource script) throws IOException {
+        try (InputStream in = script.getInputStream()) {
+            CRC32 crc = new CRC32();
+            crc.update(FileCopyUtils.copyToByteArray(in));
+            return crc.getValue();
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final Resource script;
+        private final long checksum;
+
+        Migration(int version, String description, Resource script, long checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = checksum;
+        }
+    }
+}
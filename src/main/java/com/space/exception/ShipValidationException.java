@@ -0,0 +1,22 @@
+package com.space.exception;
+
+import com.space.service.validator.Violation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rejected ship, carries every violated constraint rather than just the first one.
+ */
+public class ShipValidationException extends BadRequestException {
+    private final List<Violation> violations;
+
+    public ShipValidationException(List<Violation> violations) {
+        super(violations.stream().map(Violation::toString).collect(Collectors.joining("; ")));
+        this.violations = violations;
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,139 @@
+package com.space.generator;
+
+import com.space.model.ShipType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Value distributions of a synthetic fleet. Ship types and planets are drawn by weight, the numeric columns
+ * uniformly from their ranges. The defaults follow the hand-written seed data.
+ */
+public class FleetDistribution {
+    private Map<ShipType, Double> shipTypes = new LinkedHashMap<>();
+    private Map<String, Double> planets = new LinkedHashMap<>();
+    private int minProdYear = 2800;
+    private int maxProdYear = 3019;
+    private double minSpeed = 0.01;
+    private double maxSpeed = 0.99;
+    private int minCrewSize = 1;
+    private int maxCrewSize = 9999;
+    private double usedRatio = 0.5;
+
+    public FleetDistribution() {
+        for (ShipType shipType : ShipType.values()) {
+            shipTypes.put(shipType, 1.0);
+        }
+        for (String planet : new String[]{"Earth", "Mars", "Jupiter", "Saturn", "Venus", "Neptune", "Mercury",
+                "Pluto", "Uranus", "Europa"}) {
+            planets.put(planet, 1.0);
+        }
+    }
+
+    /**
+     * Reads the {@code fleet.*} keys, missing keys keep their defaults. Weighted keys are lists like
+     * {@code MERCHANT:5,MILITARY:2,TRANSPORT:3}.
+     */
+    public static FleetDistribution fromProperties(Properties properties) {
+        FleetDistribution distribution = new FleetDistribution();
+        String shipTypes = properties.getProperty("fleet.shipTypes");
+        if (shipTypes != null) {
+            distribution.shipTypes.clear();
+            parseWeights(shipTypes).forEach((type, weight) -> distribution.shipTypes.put(ShipType.valueOf(type), weight));
+        }
+        String planets = properties.getProperty("fleet.planets");
+        if (planets != null)
+            distribution.planets = parseWeights(planets);
+
+        distribution.minProdYear = Integer.parseInt(properties.getProperty("fleet.minProdYear", "" + distribution.minProdYear));
+        distribution.maxProdYear = Integer.parseInt(properties.getProperty("fleet.maxProdYear", "" + distribution.maxProdYear));
+        distribution.minSpeed = Double.parseDouble(properties.getProperty("fleet.minSpeed", "" + distribution.minSpeed));
+        distribution.maxSpeed = Double.parseDouble(properties.getProperty("fleet.maxSpeed", "" + distribution.maxSpeed));
+        distribution.minCrewSize = Integer.parseInt(properties.getProperty("fleet.minCrewSize", "" + distribution.minCrewSize));
+        distribution.maxCrewSize = Integer.parseInt(properties.getProperty("fleet.maxCrewSize", "" + distribution.maxCrewSize));
+        distribution.usedRatio = Double.parseDouble(properties.getProperty("fleet.usedRatio", "" + distribution.usedRatio));
+        return distribution;
+    }
+
+    private static Map<String, Double> parseWeights(String value) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0].trim(), parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0);
+        }
+        return weights;
+    }
+
+    public Map<ShipType, Double> getShipTypes() {
+        return shipTypes;
+    }
+
+    public void setShipTypes(Map<ShipType, Double> shipTypes) {
+        this.shipTypes = shipTypes;
+    }
+
+    public Map<String, Double> getPlanets() {
+        return planets;
+    }
+
+    public void setPlanets(Map<String, Double> planets) {
+        this.planets = planets;
+    }
+
+    public int getMinProdYear() {
+        return minProdYear;
+    }
+
+    public void setMinProdYear(int minProdYear) {
+        this.minProdYear = minProdYear;
+    }
+
+    public int getMaxProdYear() {
+        return maxProdYear;
+    }
+
+    public void setMaxProdYear(int maxProdYear) {
+        this.maxProdYear = maxProdYear;
+    }
+
+    public double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public void setMinSpeed(double minSpeed) {
+        this.minSpeed = minSpeed;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public int getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public void setMinCrewSize(int minCrewSize) {
+        this.minCrewSize = minCrewSize;
+    }
+
+    public int getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public void setMaxCrewSize(int maxCrewSize) {
+        this.maxCrewSize = maxCrewSize;
+    }
+
+    public double getUsedRatio() {
+        return usedRatio;
+    }
+
+    public void setUsedRatio(double usedRatio) {
+        this.usedRatio = usedRatio;
+    }
+}
@@ -0,0 +1,206 @@
+package com.space.generator;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.rating.RatingEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a reproducible synthetic fleet following a {@link FleetDistribution}, rated with the service's
+ * {@link RatingEngine}, and bulk loads it into the {@code ship} table with multi-row inserts.
+ * <p>
+ * From the command line:
+ * <pre>
+ * java -cp ... [-Ddb.url=...] [-Dfleet.shipTypes=MERCHANT:5,MILITARY:1] [-Dfleet.truncate=true] \
+ *     com.space.generator.FleetGenerator &lt;count&gt; [seed]
+ * </pre>
+ * Connection settings default to {@code db.properties}, every key can be overridden with a system property.
+ */
+public class FleetGenerator {
+    private static final Logger log = LoggerFactory.getLogger(FleetGenerator.class);
+
+    public static final int ROWS_PER_STATEMENT = 1000;
+    private static final int STATEMENTS_PER_COMMIT = 50;
+    private static final String INSERT_PREFIX =
+            "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] NAME_PREFIXES = {"Orion", "Daedalus", "Hermes", "Titan", "Nostromo", "Eagle",
+            "Serenity", "Rocinante", "Falcon", "Enterprise", "Voyager", "Aurora", "Prometheus", "Icarus"};
+
+    private final SplittableRandom random;
+    private final RatingEngine ratingEngine;
+    private final ShipType[] shipTypes;
+    private final double[] shipTypeWeights;
+    private final String[] planets;
+    private final double[] planetWeights;
+    private final long minProdDay;
+    private final long maxProdDay;
+    private final int minSpeedHundredths;
+    private final int maxSpeedHundredths;
+    private final int minCrewSize;
+    private final int maxCrewSize;
+    private final double usedRatio;
+
+    public FleetGenerator(FleetDistribution distribution, long seed, RatingEngine ratingEngine) {
+        this.random = new SplittableRandom(seed);
+        this.ratingEngine = ratingEngine;
+        this.shipTypes = distribution.getShipTypes().keySet().toArray(new ShipType[0]);
+        this.shipTypeWeights = cumulative(distribution.getShipTypes());
+        this.planets = distribution.getPlanets().keySet().toArray(new String[0]);
+        this.planetWeights = cumulative(distribution.getPlanets());
+        this.minProdDay = LocalDate.of(distribution.getMinProdYear(), 1, 1).toEpochDay();
+        this.maxProdDay = LocalDate.of(distribution.getMaxProdYear(), 12, 31).toEpochDay();
+        this.minSpeedHundredths = (int) Math.round(distribution.getMinSpeed() * 100);
+        this.maxSpeedHundredths = (int) Math.round(distribution.getMaxSpeed() * 100);
+        this.minCrewSize = distribution.getMinCrewSize();
+        this.maxCrewSize = distribution.getMaxCrewSize();
+        this.usedRatio = distribution.getUsedRatio();
+    }
+
+    /**
+     * The next ship, without an id.
+     */
+    public Ship next() {
+        String name = NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)] + " " + (random.nextInt(9999) + 1);
+        String planet = planets[pick(planetWeights)];
+        ShipType shipType = shipTypes[pick(shipTypeWeights)];
+        LocalDate prodDate = LocalDate.ofEpochDay(random.nextLong(minProdDay, maxProdDay + 1));
+        boolean isUsed = random.nextDouble() < usedRatio;
+        double speed = random.nextInt(minSpeedHundredths, maxSpeedHundredths + 1) / 100.0;
+        int crewSize = random.nextInt(minCrewSize, maxCrewSize + 1);
+        double rating = ratingEngine.rate(isUsed, prodDate.getYear(), speed);
+        return new Ship(name, planet, shipType, Date.valueOf(prodDate), isUsed, speed, crewSize, rating);
+    }
+
+    /**
+     * Inserts {@code count} generated ships, {@value #ROWS_PER_STATEMENT} rows per statement, committing every
+     * {@value #STATEMENTS_PER_COMMIT} statements. Returns the number of rows inserted.
+     */
+    public long insert(Connection connection, long count) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long inserted = 0;
+        try {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(ROWS_PER_STATEMENT))) {
+                int statements = 0;
+                while (count - inserted >= ROWS_PER_STATEMENT) {
+                    for (int row = 0; row < ROWS_PER_STATEMENT; row++) {
+                        bind(statement, row, next());
+                    }
+                    inserted += statement.executeUpdate();
+                    if (++statements % STATEMENTS_PER_COMMIT == 0) {
+                        connection.commit();
+                        log.info("Inserted {} of {} ships", inserted, count);
+                    }
+                }
+            }
+            int rest = (int) (count - inserted);
+            if (rest > 0) {
+                try (PreparedStatement statement = connection.prepareStatement(insertSql(rest))) {
+                    for (int row = 0; row < rest; row++) {
+                        bind(statement, row, next());
+                    }
+                    inserted += statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return inserted;
+    }
+
+    static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW.length() + 2)).append(INSERT_PREFIX);
+        for (int row = 0; row < rows; row++) {
+            if (row > 0)
+                sql.append(", ");
+            sql.append(ROW);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement statement, int row, Ship ship) throws SQLException {
+        int offset = row * 8;
+        statement.setString(offset + 1, ship.getName());
+        statement.setString(offset + 2, ship.getPlanet());
+        statement.setString(offset + 3, ship.getShipType().name());
+        statement.setDate(offset + 4, (Date) ship.getProdDate());
+        statement.setBoolean(offset + 5, ship.getUsed());
+        statement.setDouble(offset + 6, ship.getSpeed());
+        statement.setInt(offset + 7, ship.getCrewSize());
+        statement.setDouble(offset + 8, ship.getRating());
+    }
+
+    private int pick(double[] cumulativeWeights) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1]);
+        // a miss returns -(insertion point) - 1, the insertion point is the bucket the value falls into
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static double[] cumulative(Map<?, Double> weights) {
+        if (weights.isEmpty())
+            throw new IllegalArgumentException("At least one weighted value is required");
+        double[] cumulative = new double[weights.size()];
+        double sum = 0;
+        int i = 0;
+        for (double weight : weights.values()) {
+            if (weight < 0)
+                throw new IllegalArgumentException("Weights must not be negative: " + weights);
+            sum += weight;
+            cumulative[i++] = sum;
+        }
+        return cumulative;
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 1) {
+            System.err.println("Usage: FleetGenerator <count> [seed]");
+            System.exit(1);
+        }
+        long count = Long.parseLong(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        Properties properties = new Properties();
+        try (InputStream in = FleetGenerator.class.getResourceAsStream("/db.properties")) {
+            if (in != null)
+                properties.load(in);
+        }
+        properties.putAll(System.getProperties());
+
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", properties.getProperty("db.username"));
+        connectionProperties.setProperty("password", properties.getProperty("db.password"));
+        connectionProperties.setProperty("useServerPrepStmts", "false");
+
+        FleetGenerator generator = new FleetGenerator(FleetDistribution.fromProperties(properties), seed, new RatingEngine());
+        long start = System.currentTimeMillis();
+        try (Connection connection = DriverManager.getConnection(properties.getProperty("db.url"), connectionProperties)) {
+            if (Boolean.parseBoolean(properties.getProperty("fleet.truncate", "false"))) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE TABLE ship");
+                }
+            }
+            long inserted = generator.insert(connection, count);
+            log.info("Inserted {} ships in {}ms", inserted, System.currentTimeMillis() - start);
+        }
+    }
+}
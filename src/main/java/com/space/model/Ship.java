@@ -1,5 +1,7 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.io.Serializable;
@@ -8,6 +10,7 @@ import javax.persistence.*;
 
 @Entity
 @Table(name = "ship")
+@DynamicUpdate
 public class Ship implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,6 +44,12 @@ public class Ship implements Serializable {
     @Column(name = "rating")
     private Double  rating;
 
+    // bumped on every write, published as the ETag instead of in the body
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     public Ship() {
     }
 
@@ -126,4 +135,12 @@ public class Ship implements Serializable {
     public void setRating(Double rating) {
         this.rating = rating;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,83 @@
+package com.space.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Date;
+
+/**
+ * Immutable read model of a ship, serialized exactly like {@link Ship}. Listings and lookups select it through a
+ * JPQL constructor expression, so rows never become entities: nothing is added to the persistence context or
+ * snapshotted for dirty checking, and instances can be cached and shared freely.
+ */
+public final class ShipView {
+    private final Long id;
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Date prodDate;
+    private final Boolean isUsed;
+    private final Double speed;
+    private final Integer crewSize;
+    private final Double rating;
+    @JsonIgnore
+    private final Long version;
+
+    public ShipView(Long id, String name, String planet, ShipType shipType, Date prodDate, Boolean isUsed,
+                    Double speed, Integer crewSize, Double rating, Long version) {
+        this.id = id;
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.prodDate = prodDate == null ? null : new Date(prodDate.getTime());
+        this.isUsed = isUsed;
+        this.speed = speed;
+        this.crewSize = crewSize;
+        this.rating = rating;
+        this.version = version;
+    }
+
+    public static ShipView of(Ship ship) {
+        return new ShipView(ship.getId(), ship.getName(), ship.getPlanet(), ship.getShipType(), ship.getProdDate(),
+                ship.getUsed(), ship.getSpeed(), ship.getCrewSize(), ship.getRating(), ship.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public Date getProdDate() {
+        return prodDate == null ? null : new Date(prodDate.getTime());
+    }
+
+    public Boolean getUsed() {
+        return isUsed;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public Integer getCrewSize() {
+        return crewSize;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,375 @@
+package com.space.service;
+
+import com.space.controller.CountMode;
+import com.space.controller.ShipGroupBy;
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipOrder;
+import com.space.exception.BadRequestException;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.index.ShipColumnIndex;
+import com.space.service.rating.RatingEngine;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * {@link ShipService} answering every read from a {@link ShipColumnIndex} held in memory. Writes go to the database
+ * through {@link ShipServiceImpl} first and are then applied to the index. Updates and deletes hold a lock striped by
+ * ship id from the database write until the index is updated, so two writes to one ship reach the index in the
+ * order they committed.
+ * <p>
+ * Enabled with the {@code in-memory} Spring profile.
+ */
+@Service
+@Primary
+@Profile("in-memory")
+public class InMemoryShipService implements ShipService, InitializingBean {
+
+    private static final int EXPORT_CHUNK_SIZE = 1_000;
+    private static final int SHIP_LOCK_STRIPES = 64;
+
+    private final ShipColumnIndex index = new ShipColumnIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock[] shipLocks = new Lock[SHIP_LOCK_STRIPES];
+
+    public InMemoryShipService() {
+        for (int i = 0; i < shipLocks.length; i++) {
+            shipLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private ShipService shipService;
+    private RatingEngine ratingEngine;
+
+    @Autowired
+    public void setShipService(@Qualifier("shipServiceImpl") ShipService shipService) {
+        this.shipService = shipService;
+    }
+
+    @Autowired
+    public void setRatingEngine(RatingEngine ratingEngine) {
+        this.ratingEngine = ratingEngine;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        lock.writeLock().lock();
+        try {
+            // the listings return views, the export streams every entity in one pass
+            shipService.exportShips(ShipOrder.ID, null, null, null, null, null, null, null, null, null, null, null, null,
+                    index::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Ship add(Ship ship) {
+        Ship createdShip = shipService.add(ship);
+        lock.writeLock().lock();
+        try {
+            index.put(createdShip);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return createdShip;
+    }
+
+    @Override
+    public ShipImportResult importShips(Iterator<Ship> ships) {
+        return importShips(ships, batch -> { });
+    }
+
+    /**
+     * Each batch enters the column index as soon as it is committed, nothing is buffered across batches.
+     */
+    @Override
+    public ShipImportResult importShips(Iterator<Ship> ships, Consumer<List<Ship>> inserted) {
+        return shipService.importShips(ships, batch -> {
+            lock.writeLock().lock();
+            try {
+                for (Ship ship : batch) {
+                    index.put(ship);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            inserted.accept(batch);
+        });
+    }
+
+    @Override
+    public ShipView get(long id) {
+        lock.readLock().lock();
+        try {
+            Ship ship = index.get(id);
+            return ship == null ? null : ShipView.of(ship);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(long id) {
+        List<Lock> shipLocks = lockShips(Collections.singleton(id));
+        try {
+            shipService.deleteById(id);
+            lock.writeLock().lock();
+            try {
+                index.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            unlock(shipLocks);
+        }
+    }
+
+    @Override
+    public long deleteByIds(Collection<Long> ids) {
+        List<Lock> shipLocks = lockShips(ids);
+        try {
+            long deleted = shipService.deleteByIds(ids);
+            lock.writeLock().lock();
+            try {
+                for (Long id : ids) {
+                    index.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return deleted;
+        } finally {
+            unlock(shipLocks);
+        }
+    }
+
+    /**
+     * Resolves the filters against the index, which matches exactly like the database, and deletes by id.
+     */
+    @Override
+    public long deleteFilteredShips(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                                    Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                                    Double minRating, Double maxRating) {
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            ids = index.ids(index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return deleteByIds(ids);
+    }
+
+    @Override
+    public Ship update(Ship ship) {
+        List<Lock> shipLocks = lockShips(Collections.singleton(ship.getId()));
+        try {
+            Ship updatedShip = shipService.update(ship);
+            lock.writeLock().lock();
+            try {
+                index.put(updatedShip);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return updatedShip;
+        } finally {
+            unlock(shipLocks);
+        }
+    }
+
+    /**
+     * The index holds every rating input, so it is re-rated in place with the same engine instead of being reloaded.
+     */
+    @Override
+    public long recomputeRatings() {
+        long updated = shipService.recomputeRatings();
+        lock.writeLock().lock();
+        try {
+            index.recomputeRatings(ratingEngine);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return updated;
+    }
+
+    @Override
+    public long getCount() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getCount(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                         Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                         Double minRating, Double maxRating) {
+        lock.readLock().lock();
+        try {
+            return index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counting a bitset is cheap, every mode gets the exact count.
+     */
+    @Override
+    public ShipCount getCount(CountMode countMode, String name, String planet, ShipType shipType, Long after, Long before,
+                              Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                              Integer maxCrewSize, Double minRating, Double maxRating) {
+        return ShipCount.exact(getCount(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating));
+    }
+
+    /**
+     * Every write passes through the delegate, which keeps the rollups.
+     */
+    @Override
+    public ShipStats getStats(ShipGroupBy groupBy, String name, String planet, ShipType shipType, Long after,
+                              Long before, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                              Integer maxCrewSize, Double minRating, Double maxRating) {
+        return shipService.getStats(groupBy, name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    @Override
+    public List<ShipView> getFilteredShips(Integer pageNumber, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed,
+                                       Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating,
+                                       ShipType shipType, Long before, Long after) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+            return views(index.page(matches, order, pageNumber * pageSize, pageSize));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ShipPage getShipPage(Integer pageNumber, Integer pageSize, ShipOrder order, CountMode countMode, String name, String planet, Boolean isUsed,
+                                Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating,
+                                ShipType shipType, Long before, Long after) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+            List<ShipView> items = views(index.page(matches, order, pageNumber * pageSize, pageSize));
+            Long total = countMode == CountMode.NONE ? null : (long) matches.cardinality();
+            return new ShipPage(items, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Materializes the matching ships a chunk at a time, so a slow client never holds the read lock for long.
+     */
+    @Override
+    public long exportShips(ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                            Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType,
+                            Long before, Long after, Consumer<Ship> sink) {
+        int[] slots;
+        lock.readLock().lock();
+        try {
+            BitSet matches = index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+            slots = index.slots(matches, order);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long exported = 0;
+        List<Ship> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        for (int from = 0; from < slots.length; from += EXPORT_CHUNK_SIZE) {
+            chunk.clear();
+            lock.readLock().lock();
+            try {
+                for (int i = from; i < Math.min(from + EXPORT_CHUNK_SIZE, slots.length); i++) {
+                    Ship ship = index.getAt(slots[i]);
+                    if (ship != null)
+                        chunk.add(ship);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (Ship ship : chunk) {
+                sink.accept(ship);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
+    @Override
+    public List<ShipView> getFilteredShips(ShipCursor cursor, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed,
+                                       Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating,
+                                       ShipType shipType, Long before, Long after) {
+        if (cursor != null && cursor.getOrder() != order) {
+            throw new BadRequestException("Cursor was issued for another order");
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = index.filter(name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+            return views(index.page(matches, order, cursor, 0, pageSize));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<ShipView> views(List<Ship> ships) {
+        List<ShipView> views = new ArrayList<>(ships.size());
+        for (Ship ship : ships) {
+            views.add(ShipView.of(ship));
+        }
+        return views;
+    }
+
+    /**
+     * Locks the stripes of the given ids in stripe order, so that concurrent bulk deletes can't deadlock.
+     */
+    private List<Lock> lockShips(Collection<Long> ids) {
+        BitSet stripes = new BitSet(SHIP_LOCK_STRIPES);
+        for (Long id : ids) {
+            stripes.set(Math.floorMod(Long.hashCode(id), SHIP_LOCK_STRIPES));
+        }
+        List<Lock> locked = new ArrayList<>(stripes.cardinality());
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            shipLocks[i].lock();
+            locked.add(shipLocks[i]);
+        }
+        return locked;
+    }
+
+    private static void unlock(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+}
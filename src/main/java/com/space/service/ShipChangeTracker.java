@@ -0,0 +1,136 @@
+package com.space.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change marker of the ship table shared by every process writing it. Each write transaction adds one to a randomly
+ * picked row of {@code ship_change_shards}, so concurrent writers rarely wait for each other, and a background poll
+ * sums the rows every {@code changes.pollMs}. Changes of this process count as soon as they commit, changes of other
+ * processes once the poll sees the sum grow beyond them.
+ * <p>
+ * Nothing on the request path reads the table. Writes that bypass the application, e.g. manual SQL, are only noticed
+ * if they bump a shard too.
+ */
+@Component
+public class ShipChangeTracker implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ShipChangeTracker.class);
+
+    private static final int SHARDS = 16;
+    private static final String MARK_CHANGE = "UPDATE ship_change_shards SET changes = changes + 1 WHERE shard = ?";
+    private static final String SELECT_CHANGES = "SELECT COALESCE(SUM(changes), 0) FROM ship_change_shards";
+
+    private JdbcTemplate jdbcTemplate;
+    private long pollMs;
+    private ScheduledExecutorService poller;
+    private final AtomicLong own = new AtomicLong();
+    // sum minus own changes at the first poll, only touched by the poller
+    private long baseline;
+    private boolean polled;
+    private volatile long foreign;
+    private volatile long lastChangeNanos = System.nanoTime();
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Value("${changes.pollMs:1000}")
+    public void setPollMs(long pollMs) {
+        this.pollMs = pollMs;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ship-changes-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Marks a change of the ship table in the current transaction, or right away outside of one. Call it after the
+     * write itself, the marker then never runs ahead of the data.
+     */
+    public void mark() {
+        jdbcTemplate.update(MARK_CHANGE, ThreadLocalRandom.current().nextInt(SHARDS));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    committed();
+                }
+            });
+        } else {
+            committed();
+        }
+    }
+
+    /**
+     * Committed changes marked by this process.
+     */
+    public long getOwnChanges() {
+        return own.get();
+    }
+
+    /**
+     * Changes marked by other processes as of the last poll. Only differences between two readings mean anything;
+     * a reading may briefly run ahead while one of this process' commits is being counted.
+     */
+    public long getForeignChanges() {
+        return foreign;
+    }
+
+    /**
+     * Whether a change was committed here or noticed from elsewhere during the last {@code millis}.
+     */
+    public boolean changedWithin(long millis) {
+        return System.nanoTime() - lastChangeNanos < TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private void committed() {
+        own.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+    }
+
+    private void poll() {
+        try {
+            // own changes first: commits in the sum not counted yet then show up as foreign, never the reverse
+            long ownChanges = own.get();
+            long sum = jdbcTemplate.queryForObject(SELECT_CHANGES, Long.class);
+            if (!polled) {
+                baseline = sum - ownChanges;
+                polled = true;
+            }
+            long foreignChanges = sum - ownChanges - baseline;
+            if (foreignChanges != foreign) {
+                foreign = foreignChanges;
+                lastChangeNanos = System.nanoTime();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not read the ship change marker", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.space.service;
+
+import com.space.controller.CountMode;
+
+/**
+ * Number of ships matching a filter together with bounds on the true number. Exact counts have both bounds equal
+ * to the count, {@code mode} tells which of the requested semantics produced it.
+ */
+public class ShipCount {
+    private final long count;
+    private final long lower;
+    private final long upper;
+    private final CountMode mode;
+
+    public ShipCount(long count, long lower, long upper, CountMode mode) {
+        this.count = count;
+        this.lower = lower;
+        this.upper = upper;
+        this.mode = mode;
+    }
+
+    public static ShipCount exact(long count) {
+        return new ShipCount(count, count, count, CountMode.EXACT);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getLower() {
+        return lower;
+    }
+
+    public long getUpper() {
+        return upper;
+    }
+
+    public CountMode getMode() {
+        return mode;
+    }
+
+    public boolean isExact() {
+        return lower == upper;
+    }
+}
@@ -0,0 +1,53 @@
+package com.space.service;
+
+/**
+ * Aggregates of one group of ships: {@code key} is the value the group shares, {@code null} when all matching ships
+ * form a single group.
+ */
+public class ShipGroupStats {
+    private final Object key;
+    private final long count;
+    private final double avgSpeed;
+    private final double avgRating;
+    private final long totalCrew;
+    private final long used;
+    private final double usedRatio;
+
+    public ShipGroupStats(Object key, long count, double speedSum, double ratingSum, long totalCrew, long used) {
+        this.key = key;
+        this.count = count;
+        this.avgSpeed = count == 0 ? 0 : speedSum / count;
+        this.avgRating = count == 0 ? 0 : ratingSum / count;
+        this.totalCrew = totalCrew;
+        this.used = used;
+        this.usedRatio = count == 0 ? 0 : (double) used / count;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAvgSpeed() {
+        return avgSpeed;
+    }
+
+    public double getAvgRating() {
+        return avgRating;
+    }
+
+    public long getTotalCrew() {
+        return totalCrew;
+    }
+
+    public long getUsed() {
+        return used;
+    }
+
+    public double getUsedRatio() {
+        return usedRatio;
+    }
+}
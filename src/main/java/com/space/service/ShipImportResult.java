@@ -0,0 +1,58 @@
+package com.space.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many ships were stored and why the others were rejected.
+ */
+public class ShipImportResult {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long imported;
+    private long failed;
+    private final List<ItemError> errors = new ArrayList<>();
+
+    public void imported(int count) {
+        imported += count;
+    }
+
+    public void failed(long index, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS)
+            errors.add(new ItemError(index, message));
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * The first {@value #MAX_REPORTED_ERRORS} failures, {@link #getFailed()} has the full count.
+     */
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+
+    public static class ItemError {
+        private final long index;
+        private final String message;
+
+        ItemError(long index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.space.service;
+
+import com.space.model.ShipView;
+
+import java.util.List;
+
+/**
+ * One page of a filtered listing together with the size of the whole filtered set.
+ * {@code total} is {@code null} when the client asked not to count, the bounds are {@code null} unless it was
+ * estimated or served from a cache that may have missed writes.
+ */
+public class ShipPage {
+    private final List<ShipView> items;
+    private final Long total;
+    private final Long totalLower;
+    private final Long totalUpper;
+
+    public ShipPage(List<ShipView> items, Long total) {
+        this(items, total, null, null);
+    }
+
+    public ShipPage(List<ShipView> items, Long total, Long totalLower, Long totalUpper) {
+        this.items = items;
+        this.total = total;
+        this.totalLower = totalLower;
+        this.totalUpper = totalUpper;
+    }
+
+    public List<ShipView> getItems() {
+        return items;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public Long getTotalLower() {
+        return totalLower;
+    }
+
+    public Long getTotalUpper() {
+        return totalUpper;
+    }
+}
@@ -1,19 +1,61 @@
 package com.space.service;
 
+import com.space.controller.CountMode;
+import com.space.controller.ShipGroupBy;
+import com.space.controller.ShipCursor;
 import com.space.controller.ShipOrder;
 import com.space.model.Ship;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ShipService {
 
     Ship add (Ship ship);
-    Ship get(long id);
+    ShipImportResult importShips(Iterator<Ship> ships);
+
+    /**
+     * Like {@link #importShips(Iterator)}, handing every batch to {@code inserted} right after it is committed. The
+     * list is reused for the next batch once {@code inserted} returns.
+     */
+    ShipImportResult importShips(Iterator<Ship> ships, Consumer<List<Ship>> inserted);
+    ShipView get(long id);
     void deleteById(long id);
+
+    /**
+     * Deletes the ships with the given ids in batches, ids that do not exist are skipped. Returns how many were deleted.
+     */
+    long deleteByIds(Collection<Long> ids);
+
+    /**
+     * Deletes every ship matching the listing filters in batches, returns how many were deleted.
+     */
+    long deleteFilteredShips(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                             Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                             Double minRating, Double maxRating);
     Ship update(Ship ship);
+
+    /**
+     * Rewrites stored ratings that differ from the ones computed for the current year, returns how many changed.
+     */
+    long recomputeRatings();
+
+
     long getCount();
     long getCount(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed, Double minSpeed,
                   Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating);
-    List<Ship> getFilteredShips(Integer pageNumber, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after);
+    ShipCount getCount(CountMode countMode, String name, String planet, ShipType shipType, Long after, Long before,
+                       Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                       Double minRating, Double maxRating);
+    ShipStats getStats(ShipGroupBy groupBy, String name, String planet, ShipType shipType, Long after, Long before,
+                       Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                       Double minRating, Double maxRating);
+    List<ShipView> getFilteredShips(Integer pageNumber, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after);
+    ShipPage getShipPage(Integer pageNumber, Integer pageSize, ShipOrder order, CountMode countMode, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after);
+    long exportShips(ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after, Consumer<Ship> sink);
+    List<ShipView> getFilteredShips(ShipCursor cursor, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after);
 }
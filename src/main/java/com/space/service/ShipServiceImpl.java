@@ -1,86 +1,407 @@
 package com.space.service;
 
+import com.space.controller.CountMode;
+import com.space.controller.ShipGroupBy;
+import com.space.controller.ShipCursor;
 import com.space.controller.ShipOrder;
+import com.space.datasource.ReplicaRoutingDataSource;
+import com.space.exception.BadRequestException;
 import com.space.exception.ResourceNotFoundException;
 import com.space.model.Ship;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 import com.space.repository.ShipRepository;
+import com.space.service.cache.BoundedCache;
+import com.space.service.cache.ShipQueryKey;
+import com.space.service.cache.ShipQueryShape;
+import com.space.service.count.ShipCountStatistics;
+import com.space.service.stats.ShipRollup;
+import com.space.service.index.SearchKeys;
+import com.space.service.index.ShipSearchIndex;
+import com.space.service.rating.RatingEngine;
+import com.space.service.rating.RatingRecomputer;
 import com.space.service.validator.ShipValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Service
-public class ShipServiceImpl implements ShipService {
+public class ShipServiceImpl implements ShipService, InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ShipServiceImpl.class);
+
+    private static final int MAX_INDEXED_CANDIDATES = 1000;
+    private static final String SELECT_VIEW_BY_ID = ShipQueryShape.SELECT_VIEW + " where s.id = :id";
+    private static final String INSERT_SHIP = "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
     private ShipRepository shipRepository;
     private EntityManager entityManager;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private int importBatchSize;
+    private int deleteBatchSize;
+    private RatingEngine ratingEngine;
+    private RatingRecomputer ratingRecomputer;
+    private ShipSearchIndex searchIndex;
+    private ShipChangeTracker changeTracker;
+    private long shipCacheMaxSize;
+    private long shipCacheTtlMs;
+    private BoundedCache<Long, ShipView> shipCache;
+    private long queryCacheMaxSize;
+    private long queryCacheTtlMs;
+    private BoundedCache<ShipQueryKey, Object> queryCache;
+    private long queryShapeCacheMaxSize;
+    private BoundedCache<Integer, String> queryShapeCache;
+    private long countCacheMaxSize;
+    private long countCacheTtlMs;
+    private BoundedCache<ShipQueryKey, long[]> countCache;
+    private long aggregatesRefreshMs;
+    private long aggregatesMissedReloadMs;
+    private volatile Aggregates aggregates;
+    private volatile long aggregatesLoadedAt;
+    private final Object aggregatesLock = new Object();
+    private final AtomicBoolean aggregatesReloading = new AtomicBoolean();
+    private ExecutorService aggregatesLoader;
+    private final AtomicLong generation = new AtomicLong();
+    // rows inserted, updated or deleted, a count taken n rows ago is off by at most n
+    private final AtomicLong rowsWritten = new AtomicLong();
 
     @Autowired
     public void setShipRepository(ShipRepository shipRepository) {
         this.shipRepository = shipRepository;
     }
 
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Value("${bulk.batchSize:1000}")
+    public void setImportBatchSize(int importBatchSize) {
+        this.importBatchSize = importBatchSize;
+    }
+
+    @Value("${bulk.deleteBatchSize:1000}")
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    @Autowired
+    public void setRatingEngine(RatingEngine ratingEngine) {
+        this.ratingEngine = ratingEngine;
+    }
+
+    @Autowired
+    public void setRatingRecomputer(RatingRecomputer ratingRecomputer) {
+        this.ratingRecomputer = ratingRecomputer;
+    }
+
+    @Autowired
+    public void setChangeTracker(ShipChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @Autowired(required = false)
+    public void setSearchIndex(ShipSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Value("${cache.ship.maxSize:0}")
+    public void setShipCacheMaxSize(long shipCacheMaxSize) {
+        this.shipCacheMaxSize = shipCacheMaxSize;
+    }
+
+    @Value("${cache.ship.ttlMs:60000}")
+    public void setShipCacheTtlMs(long shipCacheTtlMs) {
+        this.shipCacheTtlMs = shipCacheTtlMs;
+    }
+
+    @Value("${cache.query.maxSize:0}")
+    public void setQueryCacheMaxSize(long queryCacheMaxSize) {
+        this.queryCacheMaxSize = queryCacheMaxSize;
+    }
+
+    @Value("${cache.query.ttlMs:30000}")
+    public void setQueryCacheTtlMs(long queryCacheTtlMs) {
+        this.queryCacheTtlMs = queryCacheTtlMs;
+    }
+
+    @Value("${cache.queryShape.maxSize:1024}")
+    public void setQueryShapeCacheMaxSize(long queryShapeCacheMaxSize) {
+        this.queryShapeCacheMaxSize = queryShapeCacheMaxSize;
+    }
+
+    @Value("${count.cached.maxSize:5000}")
+    public void setCountCacheMaxSize(long countCacheMaxSize) {
+        this.countCacheMaxSize = countCacheMaxSize;
+    }
+
+    @Value("${count.cached.ttlMs:300000}")
+    public void setCountCacheTtlMs(long countCacheTtlMs) {
+        this.countCacheTtlMs = countCacheTtlMs;
+    }
+
+    @Value("${aggregates.refreshMs:600000}")
+    public void setAggregatesRefreshMs(long aggregatesRefreshMs) {
+        this.aggregatesRefreshMs = aggregatesRefreshMs;
+    }
+
+    @Value("${aggregates.missedReloadMs:10000}")
+    public void setAggregatesMissedReloadMs(long aggregatesMissedReloadMs) {
+        this.aggregatesMissedReloadMs = aggregatesMissedReloadMs;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        shipCache = new BoundedCache<Long, ShipView>(shipCacheMaxSize, shipCacheTtlMs).exportAs("ship");
+        queryCache = new BoundedCache<ShipQueryKey, Object>(queryCacheMaxSize, queryCacheTtlMs).exportAs("query");
+        // templates never go stale
+        queryShapeCache = new BoundedCache<Integer, String>(queryShapeCacheMaxSize, Long.MAX_VALUE).exportAs("queryShape");
+        countCache = new BoundedCache<ShipQueryKey, long[]>(countCacheMaxSize, countCacheTtlMs).exportAs("count");
+        aggregatesLoader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aggregates-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        aggregatesLoader.shutdownNow();
+    }
+
     @PersistenceContext
     public void setEntityManager(EntityManager entityManager) {
         this.entityManager = entityManager;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long getCount(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
                          Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
                          Double minRating, Double maxRating) {
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Long> query = cb.createQuery(Long.class);
-        Root<Ship> root = query.from(Ship.class);
-
-        Predicate[] predicates = getFilters(cb, root, name, planet, shipType, after, before, isUsed,
+        ShipQueryKey key = ShipQueryKey.count(generation.get(), name, planet, shipType, after, before, isUsed,
                 minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        Long cached = (Long) queryCache.get(key);
+        if (cached != null)
+            return cached;
+
+        TypedQuery<Long> query = createQuery(Long.class, ShipQueryShape.Kind.COUNT, null, null, null, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        Long count = query == null ? 0L : query.getSingleResult();
+        if (cacheable())
+            queryCache.put(key, count);
+        return count;
+    }
 
-        query.where(predicates);
-
-        query.select(cb.count(root));
-        return entityManager.createQuery(query).getSingleResult();
+    /**
+     * {@link CountMode#CACHED} answers unfiltered and {@code shipType}/{@code isUsed} counts from the maintained
+     * statistics, anything else from the last exact count of the same filters, its bounds widened by the rows written
+     * since. {@link CountMode#ESTIMATE} uses the statistics' histograms, name and planet filters are always counted.
+     * Until the statistics are loaded both modes count instead, afterwards their bounds also cover the writes the
+     * statistics missed. Writes of other nodes have no row count to widen by, once the change marker shows any the
+     * statistics and cached counts are passed over until reloaded or recounted.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ShipCount getCount(CountMode countMode, String name, String planet, ShipType shipType, Long after, Long before,
+                              Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                              Integer maxCrewSize, Double minRating, Double maxRating) {
+
+        boolean textFilters = name != null || planet != null;
+        boolean fromStatistics = !textFilters && (countMode == CountMode.ESTIMATE || countMode == CountMode.CACHED
+                && ShipCountStatistics.bucketsOnly(after, before, minSpeed, maxSpeed, minCrewSize, maxCrewSize,
+                minRating, maxRating));
+        Aggregates aggregates = fromStatistics ? aggregates() : null;
+        if (aggregates != null && !missedForeignWrites(aggregates)) {
+            // exact for bucket-only filters, unless writes were missed
+            ShipCount estimate = aggregates.counts.estimate(shipType, isUsed, after, before, minSpeed, maxSpeed,
+                    minCrewSize, maxCrewSize, minRating, maxRating);
+            long missed = aggregates.missed;
+            return new ShipCount(estimate.getCount(), Math.max(0, estimate.getLower() - missed),
+                    estimate.getUpper() + missed, countMode);
+        }
+        if (countMode == CountMode.CACHED) {
+            ShipQueryKey key = ShipQueryKey.count(0, name, planet, shipType, after, before, isUsed,
+                    minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+            long[] cached = countCache.get(key);
+            if (cached != null && cached[2] == changeTracker.getForeignChanges()) {
+                long drift = rowsWritten.get() - cached[1];
+                return new ShipCount(cached[0], Math.max(0, cached[0] - drift), cached[0] + drift, CountMode.CACHED);
+            }
+            long written = rowsWritten.get();
+            long foreign = changeTracker.getForeignChanges();
+            long count = getCount(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                    minCrewSize, maxCrewSize, minRating, maxRating);
+            if (cacheable())
+                countCache.put(key, new long[]{count, written, foreign});
+            return ShipCount.exact(count);
+        }
+        return ShipCount.exact(getCount(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                minCrewSize, maxCrewSize, minRating, maxRating));
     }
 
     @Override
-    public List<Ship> getFilteredShips(Integer pageNumber, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed,
-                                       Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after) {
+    @Transactional(readOnly = true)
+    public ShipPage getShipPage(Integer pageNumber, Integer pageSize, ShipOrder order, CountMode countMode, String name, String planet, Boolean isUsed,
+                                Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating,
+                                ShipType shipType, Long before, Long after) {
+
+        ShipQueryKey key = ShipQueryKey.page(generation.get(), pageNumber, pageSize, order, countMode, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        ShipPage cached = (ShipPage) queryCache.get(key);
+        if (cached != null)
+            return cached;
+
+        TypedQuery<ShipView> query = createQuery(ShipView.class, ShipQueryShape.Kind.LIST, order, null, null, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        int offset = pageNumber * pageSize;
+        List<ShipView> items = query == null ? new ArrayList<>()
+                : query.setFirstResult(offset).setMaxResults(pageSize).getResultList();
+
+        Long total = null;
+        ShipCount count = null;
+        if (countMode != CountMode.NONE) {
+            // a short page already tells where the filtered set ends, unless it is empty past the first page
+            if (items.size() < pageSize && (!items.isEmpty() || offset == 0))
+                total = (long) (offset + items.size());
+            else {
+                count = getCount(countMode, name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                        minCrewSize, maxCrewSize, minRating, maxRating);
+                total = count.getCount();
+            }
+        }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
-        Root<Ship> root = query.from(Ship.class);
+        ShipPage page = count == null || count.isExact() ? new ShipPage(items, total)
+                : new ShipPage(items, total, count.getLower(), count.getUpper());
+        if (cacheable())
+            queryCache.put(key, page);
+        return page;
+    }
 
-        Predicate[] predicates = getFilters(cb, root, name, planet, shipType, after, before, isUsed,
-                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShipView> getFilteredShips(Integer pageNumber, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                       Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after) {
 
-        query.where(predicates);
+        ShipQueryKey key = ShipQueryKey.list(generation.get(), pageNumber, pageSize, order, name, planet, shipType,
+                after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        @SuppressWarnings("unchecked")
+        List<ShipView> cached = (List<ShipView>) queryCache.get(key);
+        if (cached != null)
+            return cached;
+
+        TypedQuery<ShipView> query = createQuery(ShipView.class, ShipQueryShape.Kind.LIST, order, null, null, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        List<ShipView> ships = query == null ? new ArrayList<>()
+                : query.setFirstResult(pageNumber * pageSize).setMaxResults(pageSize).getResultList();
+        if (cacheable())
+            queryCache.put(key, ships);
+        return ships;
+    }
 
-        if (order != null)
-            query.orderBy(cb.asc(root.get(order.getFieldName())));
+    /**
+     * Streams every matching ship to {@code sink} through one forward-only cursor. {@code Integer.MIN_VALUE} as
+     * fetch size makes MySQL Connector/J stream rows instead of buffering the whole result, and each ship is
+     * detached once written, so memory stays flat however many ships match.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportShips(ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                            Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType,
+                            Long before, Long after, Consumer<Ship> sink) {
+
+        TypedQuery<Ship> query = createQuery(Ship.class, ShipQueryShape.Kind.EXPORT, order, null, null, name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        if (query == null)
+            return 0;
+
+        @SuppressWarnings("unchecked")
+        Query<Ship> resultQuery = query.unwrap(Query.class);
+        resultQuery.setFetchSize(Integer.MIN_VALUE);
+        resultQuery.setReadOnly(true);
+        resultQuery.setCacheMode(CacheMode.IGNORE);
+
+        Session session = entityManager.unwrap(Session.class);
+        long exported = 0;
+        try (ScrollableResults results = resultQuery.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Ship ship = (Ship) results.get(0);
+                sink.accept(ship);
+                session.detach(ship);
+                exported++;
+            }
+        }
+        return exported;
+    }
 
-        CriteriaQuery<Ship> select = query.select(root);
-        TypedQuery<Ship> resultQuery = entityManager.createQuery(select);
-        resultQuery.setFirstResult(pageNumber*pageSize);
-        resultQuery.setMaxResults(pageSize);
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShipView> getFilteredShips(ShipCursor cursor, Integer pageSize, ShipOrder order, String name, String planet, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                       Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating, ShipType shipType, Long before, Long after) {
+        if (cursor != null && cursor.getOrder() != order) {
+            throw new BadRequestException("Cursor was issued for another order");
+        }
 
-        return resultQuery.getResultList();
+        TypedQuery<ShipView> query = createQuery(ShipView.class, ShipQueryShape.Kind.KEYSET, order,
+                cursor == null ? null : cursor.getId(), cursor == null ? null : cursor.getValue(), name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        return query == null ? new ArrayList<>() : query.setMaxResults(pageSize).getResultList();
     }
 
+    /**
+     * Read-through lookup in the ship cache.
+     */
     @Override
-    public Ship get(long id) {
-        return shipRepository.findById(id).orElse(null);
+    @Transactional(readOnly = true)
+    public ShipView get(long id) {
+        ShipView ship = shipCache.get(id);
+        if (ship != null)
+            return ship;
+
+        // a write racing with the load may have made the loaded ship stale, it is then not cached
+        long generationBeforeLoad = generation.get();
+        List<ShipView> found = entityManager.createQuery(SELECT_VIEW_BY_ID, ShipView.class)
+                .setParameter("id", id)
+                .getResultList();
+        ship = found.isEmpty() ? null : found.get(0);
+        if (ship != null && generation.get() == generationBeforeLoad && cacheable())
+            shipCache.put(id, ship);
+        return ship;
     }
 
     @Override
@@ -89,87 +410,523 @@ public class ShipServiceImpl implements ShipService {
         double rating = calculateRating(ship.getUsed(), ship.getProdDate(), ship.getSpeed());
         ship.setRating(rating);
 
-        Ship createdShip = shipRepository.saveAndFlush(ship);
+        Aggregates aggregates = this.aggregates;
+        Ship createdShip = transactionTemplate.execute(status -> {
+            Ship saved = shipRepository.saveAndFlush(ship);
+            changeTracker.mark();
+            return saved;
+        });
+        generation.incrementAndGet();
+        applyToAggregates(aggregates, 1, current -> current.add(ShipView.of(createdShip)));
+        if (searchIndex != null)
+            searchIndex.put(createdShip);
         return createdShip;
     }
 
+    /**
+     * Validates and rates every ship, then inserts them in JDBC batches that the driver rewrites into multi-row
+     * inserts, one transaction per batch. Invalid ships and failed batches are reported per item, the rest of the
+     * load carries on.
+     * Imported ships get their generated ids set.
+     */
     @Override
-    public void deleteById(long id) {
-        shipRepository.deleteById(id);
+    public ShipImportResult importShips(Iterator<Ship> ships) {
+        return importShips(ships, batch -> { });
     }
 
     @Override
-    public Ship update(Ship ship) {
+    public ShipImportResult importShips(Iterator<Ship> ships, Consumer<List<Ship>> inserted) {
+        ShipImportResult result = new ShipImportResult();
+        List<Ship> batch = new ArrayList<>(importBatchSize);
+        long batchStart = 0;
+        long index = 0;
+        while (true) {
+            try {
+                if (!ships.hasNext())
+                    break;
+            } catch (RuntimeException e) {
+                // the input itself is broken, nothing after this point can be trusted
+                result.failed(index, "Unreadable input: " + e.getMessage());
+                break;
+            }
+
+            Ship ship;
+            try {
+                ship = ships.next();
+            } catch (RuntimeException e) {
+                result.failed(index++, "Unreadable ship: " + e.getMessage());
+                continue;
+            }
+
+            try {
+                ship.setId(null);
+                ShipValidator.validateForCreate(ship);
+                ship.setRating(calculateRating(ship.getUsed(), ship.getProdDate(), ship.getSpeed()));
+                if (batch.isEmpty())
+                    batchStart = index;
+                batch.add(ship);
+            } catch (BadRequestException e) {
+                result.failed(index, e.getMessage() == null ? "Invalid ship" : e.getMessage());
+            }
+            index++;
+
+            if (batch.size() == importBatchSize) {
+                insertBatch(batch, batchStart, result, inserted);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty())
+            insertBatch(batch, batchStart, result, inserted);
+
+        return result;
+    }
+
+    /**
+     * Inserts one batch in its own transaction, which the JDBC template joins through the connection the JPA
+     * transaction manager exposes. A failed batch is rolled back as a whole, so every ship reported failed can
+     * simply be sent again.
+     */
+    private void insertBatch(List<Ship> batch, long batchStart, ShipImportResult result,
+                             Consumer<List<Ship>> inserted) {
+        Aggregates aggregates = this.aggregates;
+        long[] ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                long[] keys = jdbcTemplate.execute((Connection connection) -> {
+                    try (PreparedStatement statement = connection.prepareStatement(INSERT_SHIP, Statement.RETURN_GENERATED_KEYS)) {
+                        for (Ship ship : batch) {
+                            statement.setString(1, ship.getName());
+                            statement.setString(2, ship.getPlanet());
+                            statement.setString(3, ship.getShipType().name());
+                            statement.setDate(4, new java.sql.Date(ship.getProdDate().getTime()));
+                            statement.setBoolean(5, ship.getUsed());
+                            statement.setDouble(6, ship.getSpeed());
+                            statement.setInt(7, ship.getCrewSize());
+                            statement.setDouble(8, ship.getRating());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        long[] generated = new long[batch.size()];
+                        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                            for (int i = 0; i < generated.length && generatedKeys.next(); i++) {
+                                generated[i] = generatedKeys.getLong(1);
+                            }
+                        }
+                        return generated;
+                    }
+                });
+                changeTracker.mark();
+                return keys;
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                result.failed(batchStart + i, "Batch insert failed: " + e.getMessage());
+            }
+            return;
+        }
 
-        ShipValidator.validateForUpdate(ship);
+        // only a committed batch hands out its ids
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(ids[i]);
+            batch.get(i).setVersion(0L);
+        }
+        result.imported(batch.size());
+        generation.incrementAndGet();
+        applyToAggregates(aggregates, batch.size(), current -> {
+            for (Ship ship : batch) {
+                current.add(ShipView.of(ship));
+            }
+        });
+        if (searchIndex != null) {
+            for (Ship ship : batch) {
+                searchIndex.put(ship);
+            }
+        }
+        inserted.accept(batch);
+    }
 
-        Ship shipCheck = shipRepository.findById(ship.getId()).orElse(null);
-        if (shipCheck == null) {
+    /**
+     * Deletes with a single statement, the affected row count doubles as the existence check.
+     */
+    @Override
+    public void deleteById(long id) {
+        if (deleteChunk(Collections.singletonList(id)) == 0)
             throw new ResourceNotFoundException();
+    }
+
+    @Override
+    public long deleteByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        long deleted = 0;
+        for (int from = 0; from < distinct.size(); from += deleteBatchSize) {
+            deleted += deleteChunk(distinct.subList(from, Math.min(from + deleteBatchSize, distinct.size())));
+        }
+        return deleted;
+    }
+
+    /**
+     * Walks the matching ids in keyset order and deletes them a batch at a time, so no single statement locks more
+     * than a batch of rows. Ships changed by others after their batch was selected are deleted as they matched.
+     */
+    @Override
+    public long deleteFilteredShips(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                                    Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                                    Double minRating, Double maxRating) {
+        long deleted = 0;
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            TypedQuery<Long> query = createQuery(Long.class, ShipQueryShape.Kind.IDS, ShipOrder.ID, lastId, null,
+                    name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize,
+                    minRating, maxRating);
+            if (query == null)
+                return 0;
+            ids = query.setMaxResults(deleteBatchSize).getResultList();
+
+            if (!ids.isEmpty()) {
+                deleted += deleteChunk(ids);
+                lastId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == deleteBatchSize);
+        return deleted;
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            int rows = entityManager.createQuery("delete from Ship s where s.id in :ids")
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+            if (rows > 0)
+                changeTracker.mark();
+            return rows;
+        });
+
+        generation.incrementAndGet();
+        // what the deleted rows held is unknown without reading them first, the aggregates miss them until reloaded
+        applyToAggregates(null, deleted, null);
+        for (Long id : ids) {
+            shipCache.invalidate(id);
+            if (searchIndex != null)
+                searchIndex.remove(id);
         }
+        return deleted;
+    }
 
-        ship.setName(ship.getName() == null ? shipCheck.getName() : ship.getName());
-        ship.setUsed(ship.getUsed() == null ? shipCheck.getUsed() : ship.getUsed());
-        ship.setPlanet(ship.getPlanet() == null ? shipCheck.getPlanet() : ship.getPlanet());
-        ship.setShipType(ship.getShipType() == null ? shipCheck.getShipType() : ship.getShipType());
-        ship.setProdDate(ship.getProdDate() == null ? shipCheck.getProdDate() : ship.getProdDate());
-        ship.setSpeed(ship.getSpeed() == null ? shipCheck.getSpeed() : ship.getSpeed());
-        ship.setCrewSize(ship.getCrewSize() == null ? shipCheck.getCrewSize() : ship.getCrewSize());
-        double rating = calculateRating(ship.getUsed(), ship.getProdDate(), ship.getSpeed());
-        ship.setRating(rating);
+    /**
+     * Applies the non-null fields of {@code patch} to the stored ship. One select loads the row, which the response
+     * needs anyway, and the flush writes only the columns that actually changed, no statement at all if none did.
+     */
+    @Override
+    public Ship update(Ship patch) {
+
+        ShipValidator.validateForUpdate(patch);
+
+        Aggregates aggregates = this.aggregates;
+        ShipView[] before = new ShipView[1];
+        Ship updatedShip = transactionTemplate.execute(status -> {
+            Ship ship = entityManager.find(Ship.class, patch.getId());
+            if (ship == null) {
+                throw new ResourceNotFoundException();
+            }
+            before[0] = ShipView.of(ship);
+
+            if (patch.getName() != null)
+                ship.setName(patch.getName());
+            if (patch.getPlanet() != null)
+                ship.setPlanet(patch.getPlanet());
+            if (patch.getShipType() != null)
+                ship.setShipType(patch.getShipType());
+            if (patch.getProdDate() != null)
+                ship.setProdDate(patch.getProdDate());
+            if (patch.getUsed() != null)
+                ship.setUsed(patch.getUsed());
+            if (patch.getSpeed() != null)
+                ship.setSpeed(patch.getSpeed());
+            if (patch.getCrewSize() != null)
+                ship.setCrewSize(patch.getCrewSize());
+            ship.setRating(calculateRating(ship.getUsed(), ship.getProdDate(), ship.getSpeed()));
+            // the marker follows the row, and only if the flush writes one
+            Session session = entityManager.unwrap(Session.class);
+            if (session.isDirty()) {
+                session.flush();
+                changeTracker.mark();
+            }
+            return ship;
+        });
+
+        // only after the commit, a concurrent load of the old row must not end up cached under the new generation
+        generation.incrementAndGet();
+        shipCache.invalidate(updatedShip.getId());
+        applyToAggregates(aggregates, 1, current -> {
+            current.remove(before[0]);
+            current.add(ShipView.of(updatedShip));
+        });
+        if (searchIndex != null)
+            searchIndex.put(updatedShip);
+        return updatedShip;
+    }
 
-        return shipRepository.saveAndFlush(ship);
+    /**
+     * Filters on {@code shipType} and {@code isUsed} alone are answered from the rollups while they have seen every
+     * write, any other filter by one GROUP BY query. Deletes leave the rollups behind until the next reload, averages
+     * and sums have no bounds to widen, so the query answers meanwhile.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ShipStats getStats(ShipGroupBy groupBy, String name, String planet, ShipType shipType, Long after,
+                              Long before, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                              Integer maxCrewSize, Double minRating, Double maxRating) {
+        Aggregates aggregates = ShipRollup.covers(name, planet, after, before, minSpeed, maxSpeed, minCrewSize,
+                maxCrewSize, minRating, maxRating) ? aggregates() : null;
+        if (aggregates != null && seesEveryWrite(aggregates))
+            return new ShipStats(groupBy, ShipStats.Source.ROLLUP, aggregates.rollup.get(groupBy, shipType, isUsed));
+
+        TypedQuery<Object[]> query = createQuery(Object[].class, ShipQueryShape.Kind.STATS, null, groupBy, null, null,
+                name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize,
+                minRating, maxRating);
+        List<ShipGroupStats> groups = new ArrayList<>();
+        if (query != null) {
+            int sums = groupBy == ShipGroupBy.NONE ? 0 : 1;
+            for (Object[] row : query.getResultList()) {
+                long count = ((Number) row[sums]).longValue();
+                // without grouping an empty match still yields one row, of nulls
+                if (count == 0)
+                    continue;
+                groups.add(new ShipGroupStats(sums == 0 ? null : row[0], count,
+                        ((Number) row[sums + 1]).doubleValue(), ((Number) row[sums + 2]).doubleValue(),
+                        ((Number) row[sums + 3]).longValue(), ((Number) row[sums + 4]).longValue()));
+            }
+        }
+        return new ShipStats(groupBy, ShipStats.Source.QUERY, groups);
     }
 
+    /**
+     * The total kept by the count statistics while they have seen every write, a count query otherwise.
+     */
     @Override
+    @Transactional(readOnly = true)
     public long getCount() {
-        return shipRepository.count();
+        Aggregates aggregates = aggregates();
+        return aggregates != null && seesEveryWrite(aggregates) ? aggregates.counts.total() : shipRepository.count();
+    }
+
+    @Override
+    public long recomputeRatings() {
+        long updated = ratingRecomputer.recompute();
+        generation.incrementAndGet();
+        // the rating histograms and sums miss the new ratings until reloaded
+        applyToAggregates(null, updated, null);
+        shipCache.invalidateAll();
+        return updated;
+    }
+
+    /**
+     * The current aggregates, {@code null} until the first load has finished. Loads run on a background thread: the
+     * first one on first use, then every {@code aggregates.refreshMs}, or {@code aggregates.missedReloadMs} after
+     * writes the aggregates couldn't apply, this node's or others'. Callers keep the previous aggregates meanwhile,
+     * or query instead.
+     */
+    private Aggregates aggregates() {
+        Aggregates aggregates = this.aggregates;
+        long sinceLoad = System.currentTimeMillis() - aggregatesLoadedAt;
+        boolean stale = aggregates == null || sinceLoad >= aggregatesRefreshMs
+                || !seesEveryWrite(aggregates) && sinceLoad >= aggregatesMissedReloadMs;
+        if (stale && aggregatesReloading.compareAndSet(false, true)) {
+            try {
+                aggregatesLoader.execute(this::reloadAggregates);
+            } catch (RuntimeException e) {
+                aggregatesReloading.set(false);
+                throw e;
+            }
+        }
+        return aggregates;
+    }
+
+    private void reloadAggregates() {
+        try {
+            long loadedAt = System.currentTimeMillis();
+            long writtenBefore = rowsWritten.get();
+            // foreign writes noticed later may have been scanned already, they only cause another reload
+            long foreignBefore = changeTracker.getForeignChanges();
+            Aggregates loaded = transactionTemplate.execute(status -> loadAggregates());
+            loaded.foreignAtLoad = foreignBefore;
+            synchronized (aggregatesLock) {
+                // writes committed while scanning may or may not have been seen
+                loaded.missed = rowsWritten.get() - writtenBefore;
+                aggregates = loaded;
+                aggregatesLoadedAt = loadedAt;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not load the count statistics and stats rollups", e);
+        } finally {
+            aggregatesReloading.set(false);
+        }
+    }
+
+    private Aggregates loadAggregates() {
+        @SuppressWarnings("unchecked")
+        Query<ShipView> query = entityManager.createQuery(ShipQueryShape.SELECT_VIEW, ShipView.class).unwrap(Query.class);
+        query.setFetchSize(Integer.MIN_VALUE);
+
+        Aggregates aggregates = new Aggregates();
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                aggregates.add((ShipView) results.get(0));
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Whether the aggregates reflect every write as far as this node can tell: they applied each of its own and the
+     * change marker shows none by other nodes since they were loaded.
+     */
+    private boolean seesEveryWrite(Aggregates aggregates) {
+        return aggregates.missed == 0 && !missedForeignWrites(aggregates);
+    }
+
+    private boolean missedForeignWrites(Aggregates aggregates) {
+        return changeTracker.getForeignChanges() != aggregates.foreignAtLoad;
+    }
+
+    /**
+     * Counts a committed write in {@code rowsWritten} and applies it to {@code before}, the aggregates current when
+     * the write started. Aggregates loaded since may or may not have seen the write, like any write without a
+     * {@code change} it only adds to their missed rows.
+     */
+    private void applyToAggregates(Aggregates before, long rows, Consumer<Aggregates> change) {
+        synchronized (aggregatesLock) {
+            rowsWritten.addAndGet(rows);
+            Aggregates current = this.aggregates;
+            if (current == null)
+                return;
+            if (current == before && change != null)
+                change.accept(current);
+            else
+                current.missed += rows;
+        }
     }
 
     private double calculateRating(Boolean isUsed, Date prodDate, Double speed) {
-        double k = isUsed ? 0.5 : 1;
-        Calendar prodDateCal = Calendar.getInstance();
-        prodDateCal.setTime(prodDate);
-        double number1 = 80*speed*k;
-        int currentYear = Calendar.getInstance().get(Calendar.YEAR) + 1000;
-        int prodYear = prodDateCal.get(Calendar.YEAR);
-        int number2 =  currentYear -  prodYear + 1;
-        BigDecimal rating = new BigDecimal(number1 / number2).setScale(2, RoundingMode.HALF_UP);
-        return rating.doubleValue();
-    }
-
-    private Predicate[] getFilters(CriteriaBuilder cb, Root<Ship> root,
+        return ratingEngine.rate(isUsed, prodDate, speed);
+    }
+
+    /**
+     * Creates a query from the cached JPQL template of its shape and binds the filter values, or returns
+     * {@code null} when the search index shows that a substring filter matches nothing. A {@code seekId} adds the
+     * keyset condition {@code (order column, id) > (seekValue, seekId)}.
+     */
+    // package-private for the benchmarks in src/benchmark
+    <T> TypedQuery<T> createQuery(Class<T> resultType, ShipQueryShape.Kind kind, ShipOrder order,
+                                  Long seekId, Object seekValue,
                                   String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
                                   Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
                                   Double minRating, Double maxRating) {
-        List<Predicate> predicates = new ArrayList<>();
+        return createQuery(resultType, kind, order, null, seekId, seekValue, name, planet, shipType, after, before,
+                isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    private <T> TypedQuery<T> createQuery(Class<T> resultType, ShipQueryShape.Kind kind, ShipOrder order,
+                                          ShipGroupBy groupBy, Long seekId, Object seekValue,
+                                          String name, String planet, ShipType shipType, Long after, Long before,
+                                          Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                          Integer maxCrewSize, Double minRating, Double maxRating) {
+        // a leading-wildcard LIKE cannot use any index on ship, a small enough candidate set from the search index can
+        List<Long> nameIds = name == null || searchIndex == null ? null : indexed(searchIndex.searchName(name));
+        List<Long> planetIds = planet == null || searchIndex == null ? null : indexed(searchIndex.searchPlanet(planet));
+        if ((nameIds != null && nameIds.isEmpty()) || (planetIds != null && planetIds.isEmpty()))
+            return null;
+
+        int flags = ShipQueryShape.filters(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        if (nameIds != null)
+            flags |= ShipQueryShape.NAME_BY_IDS;
+        if (planetIds != null)
+            flags |= ShipQueryShape.PLANET_BY_IDS;
+        if (seekId != null)
+            flags |= ShipQueryShape.SEEK;
+
+        int shape = kind == ShipQueryShape.Kind.STATS ? ShipQueryShape.stats(groupBy, flags)
+                : ShipQueryShape.of(kind, order, flags);
+        String jpql = queryShapeCache.get(shape);
+        if (jpql == null) {
+            jpql = ShipQueryShape.toJpql(shape);
+            queryShapeCache.put(shape, jpql);
+        }
 
-        if (name != null)
-            predicates.add(cb.like(root.get("name"), "%" + name + "%"));
-        if (planet != null)
-            predicates.add(cb.like(root.get("planet"), "%" + planet + "%"));
+        TypedQuery<T> query = entityManager.createQuery(jpql, resultType);
+        if (name != null) {
+            if (nameIds != null)
+                query.setParameter("nameIds", nameIds);
+            else
+                query.setParameter("name", "%" + SearchKeys.escapeLike(name) + "%");
+        }
+        if (planet != null) {
+            if (planetIds != null)
+                query.setParameter("planetIds", planetIds);
+            else
+                query.setParameter("planet", "%" + SearchKeys.escapeLike(planet) + "%");
+        }
         if (shipType != null)
-            predicates.add(cb.equal(root.get("shipType"), shipType));
+            query.setParameter("shipType", shipType);
         if (isUsed != null)
-            predicates.add(cb.equal(root.get("isUsed"), isUsed));
+            query.setParameter("isUsed", isUsed);
         if (after != null)
-            predicates.add(cb.greaterThanOrEqualTo(root.get("prodDate").as(Date.class), new Date(after)));
+            query.setParameter("after", new Date(after));
         if (before != null)
-            predicates.add(cb.lessThanOrEqualTo(root.get("prodDate").as(Date.class), new Date(before)));
+            query.setParameter("before", new Date(before));
         if (minSpeed != null)
-            predicates.add(cb.ge(root.get("speed"), minSpeed));
+            query.setParameter("minSpeed", minSpeed);
         if (maxSpeed != null)
-            predicates.add(cb.le(root.get("speed"), maxSpeed));
+            query.setParameter("maxSpeed", maxSpeed);
         if (minCrewSize != null)
-            predicates.add(cb.ge(root.get("crewSize"), minCrewSize));
+            query.setParameter("minCrewSize", minCrewSize);
         if (maxCrewSize != null)
-            predicates.add(cb.le(root.get("crewSize"), maxCrewSize));
+            query.setParameter("maxCrewSize", maxCrewSize);
         if (minRating != null)
-            predicates.add(cb.ge(root.get("rating"), minRating));
+            query.setParameter("minRating", minRating);
         if (maxRating != null)
-            predicates.add(cb.le(root.get("rating"), maxRating));
+            query.setParameter("maxRating", maxRating);
+        if (seekId != null) {
+            query.setParameter("seekId", seekId);
+            if (order != null && order != ShipOrder.ID)
+                query.setParameter("seekValue", seekValue);
+        }
+        return query;
+    }
+
+    private static List<Long> indexed(List<Long> candidates) {
+        return candidates == null || candidates.size() > MAX_INDEXED_CANDIDATES ? null : candidates;
+    }
 
-        return predicates.toArray(new Predicate[0]);
+    /**
+     * A result read from a replica that may not have caught up with the last write yet would stay cached under the
+     * generation of that write, it is served but not cached.
+     */
+    private static boolean cacheable() {
+        return !ReplicaRoutingDataSource.isLaggingRead();
     }
 
+    /**
+     * Everything kept up to date by the write paths instead of being queried: the count statistics and the
+     * {@code /stats} rollups.
+     */
+    private static final class Aggregates {
+        private final ShipCountStatistics counts = new ShipCountStatistics();
+        private final ShipRollup rollup = new ShipRollup();
+        // rows written that these aggregates don't reflect, guarded by aggregatesLock
+        private volatile long missed;
+        // foreign changes of the change tracker when loading started
+        private volatile long foreignAtLoad;
+
+        void add(ShipView ship) {
+            counts.add(ship);
+            rollup.add(ship);
+        }
+
+        void remove(ShipView ship) {
+            counts.remove(ship);
+            rollup.remove(ship);
+        }
+    }
 }
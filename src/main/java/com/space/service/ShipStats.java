@@ -0,0 +1,39 @@
+package com.space.service;
+
+import com.space.controller.ShipGroupBy;
+
+import java.util.List;
+
+/**
+ * Fleet statistics per group, ordered by key. {@code source} tells whether they came from the maintained rollups or
+ * from a GROUP BY query.
+ */
+public class ShipStats {
+
+    public enum Source {
+        ROLLUP,
+        QUERY
+    }
+
+    private final ShipGroupBy groupBy;
+    private final Source source;
+    private final List<ShipGroupStats> groups;
+
+    public ShipStats(ShipGroupBy groupBy, Source source, List<ShipGroupStats> groups) {
+        this.groupBy = groupBy;
+        this.source = source;
+        this.groups = groups;
+    }
+
+    public ShipGroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public List<ShipGroupStats> getGroups() {
+        return groups;
+    }
+}
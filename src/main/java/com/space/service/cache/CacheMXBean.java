@@ -0,0 +1,15 @@
+package com.space.service.cache;
+
+/**
+ * Cache statistics published over JMX.
+ */
+public interface CacheMXBean {
+    long getSize();
+    long getMaxSize();
+    long getHits();
+    long getMisses();
+    long getEvictions();
+    long getExpirations();
+    double getHitRate();
+    void invalidateAll();
+}
@@ -0,0 +1,74 @@
+package com.space.service.cache;
+
+import com.space.controller.CountMode;
+import com.space.controller.ShipOrder;
+import com.space.model.ShipType;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Canonical cache key of a listing or count query: the query kind, the data generation it was computed at and the
+ * normalized parameters. Bumping the generation on every write makes all older keys unreachable at once, the stale
+ * entries then simply age out of the LRU.
+ */
+public final class ShipQueryKey {
+    private final Object[] parts;
+    private final int hash;
+
+    private ShipQueryKey(Object... parts) {
+        this.parts = parts;
+        this.hash = Arrays.hashCode(parts);
+    }
+
+    public static ShipQueryKey list(long generation, Integer pageNumber, Integer pageSize, ShipOrder order,
+                                    String name, String planet, ShipType shipType, Long after, Long before,
+                                    Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                    Integer maxCrewSize, Double minRating, Double maxRating) {
+        return new ShipQueryKey("list", generation, pageNumber, pageSize, order,
+                normalize(name), normalize(planet), shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    public static ShipQueryKey page(long generation, Integer pageNumber, Integer pageSize, ShipOrder order,
+                                    CountMode countMode, String name, String planet, ShipType shipType, Long after,
+                                    Long before, Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                    Integer maxCrewSize, Double minRating, Double maxRating) {
+        return new ShipQueryKey("page", generation, pageNumber, pageSize, order, countMode,
+                normalize(name), normalize(planet), shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    public static ShipQueryKey count(long generation, String name, String planet, ShipType shipType, Long after,
+                                     Long before, Boolean isUsed, Double minSpeed, Double maxSpeed,
+                                     Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating) {
+        return new ShipQueryKey("count", generation,
+                normalize(name), normalize(planet), shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    /**
+     * The name and planet filters match case-insensitively under the table collation.
+     */
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ShipQueryKey that = (ShipQueryKey) o;
+        return hash == that.hash && Arrays.equals(parts, that.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(parts);
+    }
+}
@@ -0,0 +1,174 @@
+package com.space.service.cache;
+
+import com.space.controller.ShipGroupBy;
+import com.space.controller.ShipOrder;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shape of a ship query packed into an int: which filters are present, whether name and planet are matched through
+ * search index candidates, whether a keyset seek applies, the order, the query kind and the grouping. Each shape renders to one
+ * JPQL string with named parameters, so queries differing only in filter values share that string and with it
+ * Hibernate's compiled plan, where a criteria query is rendered anew and with inlined numeric literals every time.
+ */
+public final class ShipQueryShape {
+
+    public enum Kind {
+        /** {@link ShipView}s ordered by the order column only, for offset paging. */
+        LIST,
+        /** {@link ShipView}s ordered by the order column and id, for keyset paging. */
+        KEYSET,
+        /** Ship entities in keyset order. */
+        EXPORT,
+        COUNT,
+        /** Ids in keyset order. */
+        IDS,
+        /** Group key, count, speed, rating and crew sums and used count per group, ordered by group key. */
+        STATS
+    }
+
+    public static final String SELECT_VIEW = "select new " + ShipView.class.getName()
+            + "(s.id, s.name, s.planet, s.shipType, s.prodDate, s.isUsed, s.speed, s.crewSize, s.rating, s.version)"
+            + " from Ship s";
+
+    public static final int NAME = 1;
+    public static final int PLANET = 1 << 1;
+    public static final int SHIP_TYPE = 1 << 2;
+    public static final int IS_USED = 1 << 3;
+    public static final int AFTER = 1 << 4;
+    public static final int BEFORE = 1 << 5;
+    public static final int MIN_SPEED = 1 << 6;
+    public static final int MAX_SPEED = 1 << 7;
+    public static final int MIN_CREW_SIZE = 1 << 8;
+    public static final int MAX_CREW_SIZE = 1 << 9;
+    public static final int MIN_RATING = 1 << 10;
+    public static final int MAX_RATING = 1 << 11;
+    public static final int NAME_BY_IDS = 1 << 12;
+    public static final int PLANET_BY_IDS = 1 << 13;
+    public static final int SEEK = 1 << 14;
+
+    private static final int FLAGS = (1 << 15) - 1;
+    private static final int ORDER_SHIFT = 16;
+    private static final int KIND_SHIFT = 20;
+    private static final int GROUP_SHIFT = 24;
+
+    private ShipQueryShape() {
+    }
+
+    /**
+     * The filter bits of the non-null arguments.
+     */
+    public static int filters(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                              Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                              Double minRating, Double maxRating) {
+        int filters = 0;
+        if (name != null) filters |= NAME;
+        if (planet != null) filters |= PLANET;
+        if (shipType != null) filters |= SHIP_TYPE;
+        if (isUsed != null) filters |= IS_USED;
+        if (after != null) filters |= AFTER;
+        if (before != null) filters |= BEFORE;
+        if (minSpeed != null) filters |= MIN_SPEED;
+        if (maxSpeed != null) filters |= MAX_SPEED;
+        if (minCrewSize != null) filters |= MIN_CREW_SIZE;
+        if (maxCrewSize != null) filters |= MAX_CREW_SIZE;
+        if (minRating != null) filters |= MIN_RATING;
+        if (maxRating != null) filters |= MAX_RATING;
+        return filters;
+    }
+
+    /**
+     * @param flags filter bits, optionally with {@link #NAME_BY_IDS}, {@link #PLANET_BY_IDS} and {@link #SEEK}
+     * @param order the sort order, {@code null} for none
+     */
+    public static int of(Kind kind, ShipOrder order, int flags) {
+        return kind.ordinal() << KIND_SHIFT | (order == null ? 0 : order.ordinal() + 1) << ORDER_SHIFT | flags & FLAGS;
+    }
+
+    public static int stats(ShipGroupBy groupBy, int flags) {
+        return groupBy.ordinal() << GROUP_SHIFT | of(Kind.STATS, null, flags);
+    }
+
+    public static String toJpql(int shape) {
+        Kind kind = Kind.values()[shape >>> KIND_SHIFT & 0xF];
+        int orderBits = shape >>> ORDER_SHIFT & 0xF;
+        ShipOrder order = orderBits == 0 ? null : ShipOrder.values()[orderBits - 1];
+        String group = ShipGroupBy.values()[shape >>> GROUP_SHIFT & 0xF].getExpression();
+
+        StringBuilder jpql = new StringBuilder();
+        switch (kind) {
+            case COUNT:
+                jpql.append("select count(s) from Ship s");
+                break;
+            case IDS:
+                jpql.append("select s.id from Ship s");
+                break;
+            case EXPORT:
+                jpql.append("select s from Ship s");
+                break;
+            case STATS:
+                jpql.append("select ");
+                if (group != null)
+                    jpql.append(group).append(", ");
+                jpql.append("count(s), sum(s.speed), sum(s.rating), sum(s.crewSize),"
+                        + " sum(case when s.isUsed = true then 1 else 0 end) from Ship s");
+                break;
+            default:
+                jpql.append(SELECT_VIEW);
+        }
+
+        List<String> conditions = new ArrayList<>();
+        if ((shape & NAME) != 0)
+            conditions.add((shape & NAME_BY_IDS) != 0 ? "s.id in :nameIds" : "s.name like :name escape '!'");
+        if ((shape & PLANET) != 0)
+            conditions.add((shape & PLANET_BY_IDS) != 0 ? "s.id in :planetIds" : "s.planet like :planet escape '!'");
+        if ((shape & SHIP_TYPE) != 0)
+            conditions.add("s.shipType = :shipType");
+        if ((shape & IS_USED) != 0)
+            conditions.add("s.isUsed = :isUsed");
+        if ((shape & AFTER) != 0)
+            conditions.add("s.prodDate >= :after");
+        if ((shape & BEFORE) != 0)
+            conditions.add("s.prodDate <= :before");
+        if ((shape & MIN_SPEED) != 0)
+            conditions.add("s.speed >= :minSpeed");
+        if ((shape & MAX_SPEED) != 0)
+            conditions.add("s.speed <= :maxSpeed");
+        if ((shape & MIN_CREW_SIZE) != 0)
+            conditions.add("s.crewSize >= :minCrewSize");
+        if ((shape & MAX_CREW_SIZE) != 0)
+            conditions.add("s.crewSize <= :maxCrewSize");
+        if ((shape & MIN_RATING) != 0)
+            conditions.add("s.rating >= :minRating");
+        if ((shape & MAX_RATING) != 0)
+            conditions.add("s.rating <= :maxRating");
+        // (column, id) > (:seekValue, :seekId) spelled out, JPQL has no row value constructors
+        if ((shape & SEEK) != 0) {
+            if (order == null || order == ShipOrder.ID) {
+                conditions.add("s.id > :seekId");
+            } else {
+                String column = "s." + order.getFieldName();
+                conditions.add("(" + column + " > :seekValue or (" + column + " = :seekValue and s.id > :seekId))");
+            }
+        }
+        if (!conditions.isEmpty())
+            jpql.append(" where ").append(String.join(" and ", conditions));
+
+        if (kind == Kind.STATS) {
+            if (group != null)
+                jpql.append(" group by ").append(group).append(" order by ").append(group);
+        } else if (kind == Kind.LIST) {
+            if (order != null)
+                jpql.append(" order by s.").append(order.getFieldName());
+        } else if (kind != Kind.COUNT) {
+            if (order == null || order == ShipOrder.ID)
+                jpql.append(" order by s.id");
+            else
+                jpql.append(" order by s.").append(order.getFieldName()).append(", s.id");
+        }
+        return jpql.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.space.service.count;
+
+/**
+ * Equi-width histogram of one numeric column. Values below the first bin or beyond the last one are counted in
+ * the outermost bins, so those bins are treated as unbounded when a range is counted.
+ * <p>
+ * The column holds multiples of {@code unit}, hundredths for speed and rating, so values are rounded to whole
+ * units before they are binned, and bins start at whole units: {@code 0.29 / 0.01} computing as {@code 28.99...}
+ * can't put a value into the bin below, nor can a bin edge computing as {@code 0.35000000000000003} leave a value
+ * on it out of a range.
+ * <p>
+ * Nothing enforces the grid though, so values off it are kept in a second set of bins, by the unit they follow.
+ * Such a value lies strictly between two units, only a range covering both counts it for sure, and a range ending
+ * between them may or may not hold it.
+ * <p>
+ * Not thread-safe, {@link ShipCountStatistics} guards it.
+ */
+class Histogram {
+    private static final double UNIT_TOLERANCE = 1e-6;
+
+    private final double unit;
+    private final long origin;
+    private final long width;
+    private final long[] bins;
+    private final long[] offGridBins;
+
+    /**
+     * {@code origin} and {@code width} are in units.
+     */
+    Histogram(double unit, long origin, long width, int size) {
+        this.unit = unit;
+        this.origin = origin;
+        this.width = width;
+        this.bins = new long[size];
+        this.offGridBins = new long[size];
+    }
+
+    void add(double value, long delta) {
+        double position = value / unit;
+        double rounded = Math.rint(position);
+        if (Math.abs(position - rounded) < UNIT_TOLERANCE)
+            bins[bin((long) rounded)] += delta;
+        else
+            offGridBins[bin((long) Math.floor(position))] += delta;
+    }
+
+    /**
+     * Counts the values within {@code [from, to]}, either bound {@code null} for none. Bins lying completely inside
+     * the range make up the lower bound, bins touching it the upper bound, and the estimate assumes values to be
+     * spread evenly within each bin.
+     */
+    RangeCount count(Double from, Double to) {
+        long lowest = from == null ? Long.MIN_VALUE : toUnits(from, true);
+        long highest = to == null ? Long.MAX_VALUE : toUnits(to, false);
+        double fromUnits = from == null ? Double.NEGATIVE_INFINITY : from / unit;
+        double toUnits = to == null ? Double.POSITIVE_INFINITY : to / unit;
+        long lower = 0;
+        long upper = 0;
+        double estimate = 0;
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] == 0 && offGridBins[i] == 0)
+                continue;
+            long binStart = origin + i * width;
+            long binLast = binStart + width - 1;
+            boolean first = i == 0;
+            boolean last = i == bins.length - 1;
+
+            long start = first ? Long.MIN_VALUE : binStart;
+            long end = last ? Long.MAX_VALUE : binLast;
+            if (bins[i] != 0 && end >= lowest && start <= highest) {
+                upper += bins[i];
+                if (start >= lowest && end <= highest) {
+                    lower += bins[i];
+                    estimate += bins[i];
+                } else {
+                    // the outermost bins are unbounded, interpolate them over one bin width all the same
+                    double overlap = (double) Math.min(highest, binLast) - Math.max(lowest, binStart) + 1;
+                    estimate += bins[i] * Math.max(0, Math.min(1, overlap / width));
+                }
+            }
+
+            // off-grid values lie strictly between binStart and binLast + 1
+            double offStart = first ? Double.NEGATIVE_INFINITY : binStart;
+            double offEnd = last ? Double.POSITIVE_INFINITY : binLast + 1;
+            if (offGridBins[i] != 0 && offEnd > fromUnits && offStart < toUnits) {
+                upper += offGridBins[i];
+                if (offStart >= fromUnits && offEnd <= toUnits) {
+                    lower += offGridBins[i];
+                    estimate += offGridBins[i];
+                } else {
+                    double overlap = Math.min(toUnits, binLast + 1) - Math.max(fromUnits, binStart);
+                    estimate += offGridBins[i] * Math.max(0, Math.min(1, overlap / width));
+                }
+            }
+        }
+        return new RangeCount(lower, estimate, upper);
+    }
+
+    /**
+     * The first whole unit at or above a lower bound, the last one at or below an upper bound. A bound within
+     * rounding error of a whole unit is that unit.
+     */
+    private long toUnits(double bound, boolean lowerBound) {
+        double position = bound / unit;
+        double rounded = Math.rint(position);
+        if (Math.abs(position - rounded) < UNIT_TOLERANCE)
+            return (long) rounded;
+        return (long) (lowerBound ? Math.ceil(position) : Math.floor(position));
+    }
+
+    private int bin(long units) {
+        long position = Math.floorDiv(units - origin, width);
+        if (position < 0)
+            return 0;
+        return position >= bins.length ? bins.length - 1 : (int) position;
+    }
+
+    static final class RangeCount {
+        final long lower;
+        final double estimate;
+        final long upper;
+
+        RangeCount(long lower, double estimate, long upper) {
+            this.lower = lower;
+            this.estimate = estimate;
+            this.upper = upper;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.space.service.count;
+
+import com.space.controller.CountMode;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipCount;
+import com.space.service.validator.ShipValidator;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * Ship counts per {@code shipType} and {@code isUsed} bucket, each with histograms of speed, rating, crew size and
+ * production date. The write paths keep it current through {@link #add} and {@link #remove}.
+ * <p>
+ * Counts filtered by bucket alone are exact. Range filters are estimated bucket by bucket assuming independent
+ * columns, and bounded without that assumption: at most the smallest single-filter count, at least what the
+ * single-filter counts force to overlap.
+ */
+public class ShipCountStatistics {
+    // 365.2425 days of the Gregorian calendar, a whole number of milliseconds
+    private static final long MILLIS_PER_YEAR = 31_556_952_000L;
+    private static final long ORIGIN_MILLIS =
+            new GregorianCalendar(ShipValidator.MIN_PROD_YEAR, Calendar.JANUARY, 1).getTimeInMillis();
+
+    private final Bucket[] buckets = new Bucket[ShipType.values().length * 2];
+    private long total;
+
+    public ShipCountStatistics() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public void add(ShipView ship) {
+        add(ship.getShipType(), ship.getUsed(), ship.getSpeed(), ship.getRating(), ship.getCrewSize(),
+                ship.getProdDate().getTime(), 1);
+    }
+
+    public void remove(ShipView ship) {
+        add(ship.getShipType(), ship.getUsed(), ship.getSpeed(), ship.getRating(), ship.getCrewSize(),
+                ship.getProdDate().getTime(), -1);
+    }
+
+    public synchronized void add(ShipType shipType, boolean isUsed, double speed, double rating, int crewSize,
+                                 long prodDate, long delta) {
+        Bucket bucket = buckets[shipType.ordinal() * 2 + (isUsed ? 1 : 0)];
+        bucket.count += delta;
+        bucket.speed.add(speed, delta);
+        bucket.rating.add(rating, delta);
+        bucket.crewSize.add(crewSize, delta);
+        bucket.prodDate.add(prodDate, delta);
+        total += delta;
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    public static boolean bucketsOnly(Long after, Long before, Double minSpeed, Double maxSpeed,
+                                      Integer minCrewSize, Integer maxCrewSize, Double minRating, Double maxRating) {
+        return after == null && before == null && minSpeed == null && maxSpeed == null
+                && minCrewSize == null && maxCrewSize == null && minRating == null && maxRating == null;
+    }
+
+    /**
+     * Estimates the ships matching every filter given, name and planet aside, which the histograms know nothing
+     * about. Exact when only {@code shipType} and {@code isUsed} are given.
+     */
+    public synchronized ShipCount estimate(ShipType shipType, Boolean isUsed, Long after, Long before,
+                                           Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                                           Double minRating, Double maxRating) {
+        long lower = 0;
+        long upper = 0;
+        double estimate = 0;
+        for (ShipType type : ShipType.values()) {
+            if (shipType != null && shipType != type)
+                continue;
+            for (int used = 0; used < 2; used++) {
+                if (isUsed != null && isUsed != (used == 1))
+                    continue;
+                Bucket bucket = buckets[type.ordinal() * 2 + used];
+                if (bucket.count <= 0)
+                    continue;
+
+                long n = bucket.count;
+                long bucketUpper = n;
+                long lowerSum = 0;
+                double selectivity = 1;
+                int ranges = 0;
+                for (Histogram.RangeCount range : new Histogram.RangeCount[]{
+                        range(bucket.speed, minSpeed, maxSpeed),
+                        range(bucket.rating, minRating, maxRating),
+                        range(bucket.crewSize, toDouble(minCrewSize), toDouble(maxCrewSize)),
+                        range(bucket.prodDate, toDouble(after), toDouble(before))}) {
+                    if (range == null)
+                        continue;
+                    ranges++;
+                    bucketUpper = Math.min(bucketUpper, range.upper);
+                    lowerSum += range.lower;
+                    selectivity *= range.estimate / n;
+                }
+                long bucketLower = Math.max(0, lowerSum - (ranges - 1) * n);
+                if (ranges == 0)
+                    bucketLower = n;
+
+                lower += bucketLower;
+                upper += bucketUpper;
+                estimate += Math.max(bucketLower, Math.min(bucketUpper, n * selectivity));
+            }
+        }
+        return new ShipCount(Math.round(estimate), lower, upper, CountMode.ESTIMATE);
+    }
+
+    private static Histogram.RangeCount range(Histogram histogram, Double from, Double to) {
+        return from == null && to == null ? null : histogram.count(from, to);
+    }
+
+    private static Double toDouble(Number value) {
+        return value == null ? null : value.doubleValue();
+    }
+
+    private static final class Bucket {
+        private long count;
+        private final Histogram speed = new Histogram(0.01, 0, 1, 100);
+        private final Histogram rating = new Histogram(0.01, 0, 50, 160);
+        private final Histogram crewSize = new Histogram(1, ShipValidator.MIN_CREW_SIZE, 100, 100);
+        private final Histogram prodDate = new Histogram(1, ORIGIN_MILLIS, MILLIS_PER_YEAR,
+                ShipValidator.PROD_YEARS_AHEAD + 300);
+    }
+}
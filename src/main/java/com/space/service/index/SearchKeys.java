@@ -0,0 +1,32 @@
+package com.space.service.index;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text the way the {@code ship} table's {@code utf8_general_ci} collation compares it, so that the in-memory
+ * indexes match the same rows as {@code LIKE}: case and accents are ignored. The collation maps a few letters
+ * without a decomposition, such as {@code ß} to {@code s}, which this folding leaves alone; substring filters
+ * containing them may match fewer ships in memory than in the database.
+ */
+public final class SearchKeys {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKeys() {
+    }
+
+    public static String fold(String value) {
+        if (value == null)
+            return null;
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Escapes the {@code LIKE} wildcards of a user-given substring for a pattern declared with {@code escape '!'}.
+     */
+    public static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
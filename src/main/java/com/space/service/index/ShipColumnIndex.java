@@ -0,0 +1,348 @@
+package com.space.service.index;
+
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.rating.RatingEngine;
+import com.space.service.validator.ShipValidator;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented in-memory copy of the {@code ship} table. Every ship occupies one slot in the primitive column
+ * arrays, enumerated columns are kept as bitsets, so the listing filters become bitset intersections and tight
+ * loops over primitive arrays.
+ * <p>
+ * Slots are only ever appended, deleted ships just leave the {@code live} set. Ids are generated in increasing
+ * order, so slot order usually equals id order and lets {@link ShipOrder#ID} listings skip sorting. Ships created
+ * concurrently may be put out of id order though; from then on id listings sort, and every order breaks ties by
+ * comparing ids.
+ * <p>
+ * Not thread-safe, callers guard it with a read/write lock.
+ */
+public class ShipColumnIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RATING_CHUNK_SIZE = 1024;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet used = new BitSet();
+    private final BitSet[] byType = new BitSet[ShipType.values().length];
+
+    private int size;
+    private long maxId = Long.MIN_VALUE;
+    private boolean slotsInIdOrder = true;
+    private long[] id = new long[INITIAL_CAPACITY];
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private int[] crewSize = new int[INITIAL_CAPACITY];
+    private double[] rating = new double[INITIAL_CAPACITY];
+    private long[] version = new long[INITIAL_CAPACITY];
+    private int[] prodDate = new int[INITIAL_CAPACITY];
+    private String[] name = new String[INITIAL_CAPACITY];
+    private String[] planet = new String[INITIAL_CAPACITY];
+    private String[] nameKey = new String[INITIAL_CAPACITY];
+    private String[] planetKey = new String[INITIAL_CAPACITY];
+
+    public ShipColumnIndex() {
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new BitSet();
+        }
+    }
+
+    public void put(Ship ship) {
+        Integer slot = slotById.get(ship.getId());
+        if (slot == null) {
+            slot = size++;
+            ensureCapacity(size);
+            slotById.put(ship.getId(), slot);
+            if (ship.getId() < maxId)
+                slotsInIdOrder = false;
+            maxId = Math.max(maxId, ship.getId());
+        }
+        int s = slot;
+        id[s] = ship.getId();
+        speed[s] = ship.getSpeed();
+        crewSize[s] = ship.getCrewSize();
+        rating[s] = ship.getRating();
+        version[s] = ship.getVersion() == null ? 0 : ship.getVersion();
+        prodDate[s] = toEpochDay(ship.getProdDate());
+        name[s] = ship.getName();
+        planet[s] = ship.getPlanet();
+        nameKey[s] = SearchKeys.fold(ship.getName());
+        planetKey[s] = SearchKeys.fold(ship.getPlanet());
+        used.set(s, ship.getUsed());
+        for (ShipType type : ShipType.values()) {
+            byType[type.ordinal()].set(s, type == ship.getShipType());
+        }
+        live.set(s);
+    }
+
+    public void remove(long shipId) {
+        Integer slot = slotById.remove(shipId);
+        if (slot != null) {
+            live.clear(slot);
+            name[slot] = planet[slot] = nameKey[slot] = planetKey[slot] = null;
+        }
+    }
+
+    public Ship get(long shipId) {
+        Integer slot = slotById.get(shipId);
+        return slot == null ? null : toShip(slot);
+    }
+
+    public int size() {
+        return live.cardinality();
+    }
+
+    /**
+     * Re-rates every live ship from its indexed columns, a chunk of slots at a time through the batch API.
+     */
+    public void recomputeRatings(RatingEngine ratingEngine) {
+        boolean[] isUsed = new boolean[RATING_CHUNK_SIZE];
+        int[] prodYear = new int[RATING_CHUNK_SIZE];
+        double[] chunkSpeed = new double[RATING_CHUNK_SIZE];
+        double[] chunkRating = new double[RATING_CHUNK_SIZE];
+        for (int from = 0; from < size; from += RATING_CHUNK_SIZE) {
+            int count = Math.min(RATING_CHUNK_SIZE, size - from);
+            for (int i = 0; i < count; i++) {
+                isUsed[i] = used.get(from + i);
+                prodYear[i] = ShipValidator.yearOfEpochDay(prodDate[from + i]);
+                chunkSpeed[i] = speed[from + i];
+            }
+            ratingEngine.rate(isUsed, prodYear, chunkSpeed, chunkRating, count);
+            // the database bumps the version of exactly the rows whose rating changes
+            for (int i = 0; i < count; i++) {
+                if (chunkRating[i] != rating[from + i]) {
+                    rating[from + i] = chunkRating[i];
+                    version[from + i]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the listing filters, {@code null} arguments are ignored just like in the criteria query.
+     * Name and planet are matched ignoring case and accents, see {@link SearchKeys}.
+     */
+    public BitSet filter(String name, String planet, ShipType shipType, Long after, Long before, Boolean isUsed,
+                         Double minSpeed, Double maxSpeed, Integer minCrewSize, Integer maxCrewSize,
+                         Double minRating, Double maxRating) {
+        BitSet result = (BitSet) live.clone();
+
+        if (shipType != null)
+            result.and(byType[shipType.ordinal()]);
+        if (isUsed != null) {
+            if (isUsed)
+                result.and(used);
+            else
+                result.andNot(used);
+        }
+
+        int fromDay = after == null ? Integer.MIN_VALUE : firstDayStartingAtOrAfter(after);
+        int toDay = before == null ? Integer.MAX_VALUE : lastDayStartingAtOrBefore(before);
+        double fromSpeed = minSpeed == null ? Double.NEGATIVE_INFINITY : minSpeed;
+        double toSpeed = maxSpeed == null ? Double.POSITIVE_INFINITY : maxSpeed;
+        int fromCrew = minCrewSize == null ? Integer.MIN_VALUE : minCrewSize;
+        int toCrew = maxCrewSize == null ? Integer.MAX_VALUE : maxCrewSize;
+        double fromRating = minRating == null ? Double.NEGATIVE_INFINITY : minRating;
+        double toRating = maxRating == null ? Double.POSITIVE_INFINITY : maxRating;
+        String nameKey = SearchKeys.fold(name);
+        String planetKey = SearchKeys.fold(planet);
+
+        for (int s = result.nextSetBit(0); s >= 0; s = result.nextSetBit(s + 1)) {
+            if (prodDate[s] < fromDay || prodDate[s] > toDay
+                    || speed[s] < fromSpeed || speed[s] > toSpeed
+                    || crewSize[s] < fromCrew || crewSize[s] > toCrew
+                    || rating[s] < fromRating || rating[s] > toRating
+                    || nameKey != null && !this.nameKey[s].contains(nameKey)
+                    || planetKey != null && !this.planetKey[s].contains(planetKey)) {
+                result.clear(s);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code limit} ships of {@code matches} after skipping {@code offset}, ordered by {@code order}
+     * with the id as a tiebreaker.
+     */
+    public List<Ship> page(BitSet matches, ShipOrder order, int offset, int limit) {
+        return page(matches, order, null, offset, limit);
+    }
+
+    /**
+     * Keyset variant of {@link #page(BitSet, ShipOrder, int, int)}: only ships positioned after {@code cursor}
+     * are returned.
+     */
+    public List<Ship> page(BitSet matches, ShipOrder order, ShipCursor cursor, int offset, int limit) {
+        if (cursor != null) {
+            matches = (BitSet) matches.clone();
+            for (int s = matches.nextSetBit(0); s >= 0; s = matches.nextSetBit(s + 1)) {
+                if (compareToCursor(s, cursor) <= 0)
+                    matches.clear(s);
+            }
+        }
+
+        List<Ship> ships = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality() - offset)));
+        if (order == null)
+            order = ShipOrder.ID;
+        if (order == ShipOrder.ID && slotsInIdOrder) {
+            int skipped = 0;
+            for (int s = matches.nextSetBit(0); s >= 0 && ships.size() < limit; s = matches.nextSetBit(s + 1)) {
+                if (skipped++ >= offset)
+                    ships.add(toShip(s));
+            }
+            return ships;
+        }
+
+        int[] slots = matches.stream().toArray();
+        sort(slots, order);
+        for (int i = offset; i < slots.length && ships.size() < limit; i++) {
+            ships.add(toShip(slots[i]));
+        }
+        return ships;
+    }
+
+    public List<Long> ids(BitSet matches) {
+        List<Long> ids = new ArrayList<>(matches.cardinality());
+        for (int s = matches.nextSetBit(0); s >= 0; s = matches.nextSetBit(s + 1)) {
+            ids.add(id[s]);
+        }
+        return ids;
+    }
+
+    /**
+     * Slots of {@code matches} in {@code order}, to be read one by one with {@link #getAt(int)}.
+     */
+    public int[] slots(BitSet matches, ShipOrder order) {
+        int[] slots = matches.stream().toArray();
+        if (order == null)
+            order = ShipOrder.ID;
+        if (order != ShipOrder.ID || !slotsInIdOrder)
+            sort(slots, order);
+        return slots;
+    }
+
+    /**
+     * The ship in {@code slot}, or {@code null} if it has been deleted since the slot was handed out.
+     */
+    public Ship getAt(int slot) {
+        return live.get(slot) ? toShip(slot) : null;
+    }
+
+    private int compareToCursor(int s, ShipCursor cursor) {
+        int result;
+        switch (cursor.getOrder()) {
+            case SPEED:
+                result = Double.compare(speed[s], (Double) cursor.getValue());
+                break;
+            case DATE:
+                result = Integer.compare(prodDate[s], toEpochDay((Date) cursor.getValue()));
+                break;
+            case RATING:
+                result = Double.compare(rating[s], (Double) cursor.getValue());
+                break;
+            default:
+                result = 0;
+        }
+        return result != 0 ? result : Long.compare(id[s], cursor.getId());
+    }
+
+    /**
+     * Merge sort of slot numbers by one column, ties broken by id.
+     */
+    private void sort(int[] slots, ShipOrder order) {
+        int[] buffer = new int[slots.length];
+        for (int width = 1; width < slots.length; width *= 2) {
+            for (int lo = 0; lo < slots.length - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, slots.length);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = compare(slots[j], slots[i], order) < 0 ? slots[j++] : slots[i++];
+                }
+                while (i < mid) buffer[k++] = slots[i++];
+                while (j < hi) buffer[k++] = slots[j++];
+                System.arraycopy(buffer, lo, slots, lo, hi - lo);
+            }
+        }
+    }
+
+    private int compare(int a, int b, ShipOrder order) {
+        int result;
+        switch (order) {
+            case SPEED:
+                result = Double.compare(speed[a], speed[b]);
+                break;
+            case DATE:
+                result = Integer.compare(prodDate[a], prodDate[b]);
+                break;
+            case RATING:
+                result = Double.compare(rating[a], rating[b]);
+                break;
+            default:
+                result = 0;
+        }
+        return result != 0 ? result : Long.compare(id[a], id[b]);
+    }
+
+    private Ship toShip(int s) {
+        Ship ship = new Ship(name[s], planet[s], shipTypeOf(s), java.sql.Date.valueOf(LocalDate.ofEpochDay(prodDate[s])),
+                used.get(s), speed[s], crewSize[s], rating[s]);
+        ship.setId(id[s]);
+        ship.setVersion(version[s]);
+        return ship;
+    }
+
+    private ShipType shipTypeOf(int s) {
+        for (ShipType type : ShipType.values()) {
+            if (byType[type.ordinal()].get(s))
+                return type;
+        }
+        return null;
+    }
+
+    private int toEpochDay(Date date) {
+        if (date instanceof java.sql.Date)
+            return (int) ((java.sql.Date) date).toLocalDate().toEpochDay();
+        return (int) Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    private int firstDayStartingAtOrAfter(long millis) {
+        LocalDate day = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+        if (day.atStartOfDay(zone).toInstant().toEpochMilli() < millis)
+            day = day.plusDays(1);
+        return (int) day.toEpochDay();
+    }
+
+    private int lastDayStartingAtOrBefore(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= id.length)
+            return;
+        int capacity = Math.max(required, id.length * 2);
+        id = Arrays.copyOf(id, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        crewSize = Arrays.copyOf(crewSize, capacity);
+        rating = Arrays.copyOf(rating, capacity);
+        version = Arrays.copyOf(version, capacity);
+        prodDate = Arrays.copyOf(prodDate, capacity);
+        name = Arrays.copyOf(name, capacity);
+        planet = Arrays.copyOf(planet, capacity);
+        nameKey = Arrays.copyOf(nameKey, capacity);
+        planetKey = Arrays.copyOf(planetKey, capacity);
+    }
+}
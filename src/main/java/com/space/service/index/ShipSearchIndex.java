@@ -0,0 +1,74 @@
+package com.space.service.index;
+
+import com.space.model.Ship;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Trigram indexes over {@link Ship#getName()} and {@link Ship#getPlanet()}, built from the {@code ship} table on
+ * startup and kept current by the service write paths. Rows written around the service are not seen, so it is
+ * only enabled with the {@code search-index} Spring profile.
+ */
+@Component
+@Profile("search-index")
+public class ShipSearchIndex implements InitializingBean {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final TrigramIndex names = new TrigramIndex();
+    private final TrigramIndex planets = new TrigramIndex();
+
+    private EntityManager entityManager;
+
+    @PersistenceContext
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long lastId = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = entityManager.createQuery(
+                    "select s.id, s.name, s.planet from Ship s where s.id > :lastId order by s.id", Object[].class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(LOAD_CHUNK_SIZE)
+                    .getResultList();
+            for (Object[] row : chunk) {
+                lastId = (Long) row[0];
+                names.put(lastId, (String) row[1]);
+                planets.put(lastId, (String) row[2]);
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+    }
+
+    public void put(Ship ship) {
+        names.put(ship.getId(), ship.getName());
+        planets.put(ship.getId(), ship.getPlanet());
+    }
+
+    public void remove(long id) {
+        names.remove(id);
+        planets.remove(id);
+    }
+
+    /**
+     * Ids of the ships whose name contains {@code name}, or {@code null} if the index cannot answer.
+     */
+    public List<Long> searchName(String name) {
+        return names.search(name);
+    }
+
+    /**
+     * Ids of the ships whose planet contains {@code planet}, or {@code null} if the index cannot answer.
+     */
+    public List<Long> searchPlanet(String planet) {
+        return planets.search(planet);
+    }
+}
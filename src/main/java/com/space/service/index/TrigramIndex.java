@@ -0,0 +1,142 @@
+package com.space.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from the trigrams of a text column, folded by {@link SearchKeys#fold}, to the ids of the rows
+ * containing them. Answers case- and accent-insensitive substring queries, the in-memory counterpart of
+ * {@code LIKE '%x%'}.
+ */
+public class TrigramIndex {
+    private static final int GRAM = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, String> values = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            String key = SearchKeys.fold(value);
+            String previous = values.get(id);
+            if (previous != null && previous.equals(key))
+                return;
+            removeLocked(id);
+            if (key == null)
+                return;
+            values.put(id, key);
+            for (long trigram : trigrams(key)) {
+                postings.computeIfAbsent(trigram, t -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids, ascending, of all values containing {@code substring} ignoring case and accents, or {@code null} when
+     * the substring is shorter than a trigram and the index cannot narrow the search.
+     */
+    public List<Long> search(String substring) {
+        String key = SearchKeys.fold(substring);
+        if (key.length() < GRAM)
+            return null;
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>();
+            for (long trigram : trigrams(key)) {
+                PostingList list = postings.get(trigram);
+                if (list == null)
+                    return new ArrayList<>();
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            // walk the rarest trigram and probe the others, then drop the ids whose trigrams are not adjacent
+            PostingList rarest = lists.get(0);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < rarest.size; i++) {
+                long id = rarest.ids[i];
+                boolean inAll = true;
+                for (int j = 1; j < lists.size() && inAll; j++) {
+                    inAll = lists.get(j).contains(id);
+                }
+                if (inAll && values.get(id).contains(key))
+                    ids.add(id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        String previous = values.remove(id);
+        if (previous == null)
+            return;
+        for (long trigram : trigrams(previous)) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size == 0)
+                postings.remove(trigram);
+        }
+    }
+
+    private static Set<Long> trigrams(String key) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            trigrams.add(((long) key.charAt(i) << 32) | ((long) key.charAt(i + 1) << 16) | key.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Sorted, growable array of ids. Ids are generated in increasing order, so additions are appends.
+     */
+    private static class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0)
+                return;
+            position = -position - 1;
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0)
+                return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
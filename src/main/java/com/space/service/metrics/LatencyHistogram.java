@@ -0,0 +1,72 @@
+package com.space.service.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets, from under 64µs up to about 67s. Percentiles
+ * are reported as the upper bound of the bucket they fall into, so they are accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int FIRST_BUCKET_SHIFT = 6; // the first bucket holds everything below 64µs
+    private static final int BUCKETS = 21;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private volatile long maxMicros;
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        if (micros > maxMicros) {
+            synchronized (this) {
+                if (micros > maxMicros)
+                    maxMicros = micros;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros / 1000.0;
+    }
+
+    /**
+     * Upper bound in milliseconds of the bucket holding the {@code quantile} (0..1) of all recorded latencies.
+     */
+    public double getPercentileMillis(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return i == BUCKETS - 1 ? getMaxMillis() : (1L << (FIRST_BUCKET_SHIFT + i)) / 1000.0;
+        }
+        return getMaxMillis();
+    }
+
+    private static int bucketOf(long micros) {
+        int bits = 64 - Long.numberOfLeadingZeros(micros); // micros < 2^bits
+        return Math.min(BUCKETS - 1, Math.max(0, bits - FIRST_BUCKET_SHIFT));
+    }
+}
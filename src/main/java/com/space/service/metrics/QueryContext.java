@@ -0,0 +1,123 @@
+package com.space.service.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Counters of the request being served by the current thread. The JDBC layer and the controller report into it
+ * through the static methods, which do nothing while no request is being measured.
+ */
+public final class QueryContext {
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final String signature;
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private long rowsFetched;
+    private long rowsReturned;
+    private long statementNanos;
+    private long slowestStatementNanos;
+    private String slowestStatement;
+
+    private QueryContext(String endpoint, String signature) {
+        this.endpoint = endpoint;
+        this.signature = signature;
+    }
+
+    public static QueryContext begin(String endpoint, String signature) {
+        QueryContext context = new QueryContext(endpoint, signature);
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static QueryContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Continues measuring {@code context} on the current thread, e.g. on the thread a query was handed off to.
+     */
+    public static void attach(QueryContext context) {
+        if (context == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(context);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    public static QueryContext end() {
+        QueryContext context = CURRENT.get();
+        CURRENT.remove();
+        return context;
+    }
+
+    public static void statementExecuted(String sql, long nanos) {
+        statementExecuted(() -> sql, nanos);
+    }
+
+    /**
+     * Variant for SQL that is costly to render, {@code sql} is only asked for when the statement is the slowest yet.
+     */
+    public static void statementExecuted(Supplier<String> sql, long nanos) {
+        QueryContext context = CURRENT.get();
+        if (context == null)
+            return;
+        context.statements++;
+        context.statementNanos += nanos;
+        if (nanos > context.slowestStatementNanos) {
+            context.slowestStatementNanos = nanos;
+            context.slowestStatement = sql.get();
+        }
+    }
+
+    public static void rowsFetched(long rows) {
+        QueryContext context = CURRENT.get();
+        if (context != null)
+            context.rowsFetched += rows;
+    }
+
+    public static void rowsReturned(long rows) {
+        QueryContext context = CURRENT.get();
+        if (context != null)
+            context.rowsReturned += rows;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRowsFetched() {
+        return rowsFetched;
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public long getSlowestStatementNanos() {
+        return slowestStatementNanos;
+    }
+
+    public String getSlowestStatement() {
+        return slowestStatement;
+    }
+}
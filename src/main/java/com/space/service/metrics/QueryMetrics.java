@@ -0,0 +1,82 @@
+package com.space.service.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per endpoint and filter signature latency histograms, statement and row counters, plus the slow-query log.
+ * Requests slower than {@code metrics.slowQueryMs} are logged to the {@code com.space.slowquery} logger with their
+ * signature, counters and the slowest SQL statement they ran.
+ */
+@Component
+public class QueryMetrics {
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.space.slowquery");
+    private static final String OVERFLOW_SIGNATURE = "(other)";
+
+    private final ConcurrentMap<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private long slowQueryNanos;
+    private int maxSignatures;
+
+    @Value("${metrics.slowQueryMs:500}")
+    public void setSlowQueryMs(long slowQueryMs) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    @Value("${metrics.maxSignatures:1000}")
+    public void setMaxSignatures(int maxSignatures) {
+        this.maxSignatures = maxSignatures;
+    }
+
+    public void record(QueryContext context) {
+        long elapsedNanos = context.getElapsedNanos();
+        boolean slow = elapsedNanos >= slowQueryNanos;
+        statsFor(context.getEndpoint(), context.getSignature()).record(context, elapsedNanos, slow);
+
+        if (slow) {
+            slowQueryLog.warn("{} [{}] took {}ms: {} statements ({}ms), {} rows fetched, {} returned, slowest {}ms: {}",
+                    context.getEndpoint(), context.getSignature(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    context.getStatements(), TimeUnit.NANOSECONDS.toMillis(context.getStatementNanos()),
+                    context.getRowsFetched(), context.getRowsReturned(),
+                    TimeUnit.NANOSECONDS.toMillis(context.getSlowestStatementNanos()), context.getSlowestStatement());
+        }
+    }
+
+    /**
+     * All measured signatures, slowest p99 first.
+     */
+    public List<QueryStats.View> snapshot() {
+        List<QueryStats.View> views = new ArrayList<>(stats.size());
+        for (QueryStats queryStats : stats.values()) {
+            views.add(queryStats.view());
+        }
+        views.sort(Comparator.comparingDouble(QueryStats.View::getP99Ms).reversed());
+        return views;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private QueryStats statsFor(String endpoint, String signature) {
+        String key = endpoint + ' ' + signature;
+        QueryStats queryStats = stats.get(key);
+        if (queryStats != null)
+            return queryStats;
+        // bounds memory if clients send many distinct filter combinations
+        if (stats.size() >= maxSignatures) {
+            signature = OVERFLOW_SIGNATURE;
+            key = endpoint + ' ' + signature;
+        }
+        String finalSignature = signature;
+        return stats.computeIfAbsent(key, k -> new QueryStats(endpoint, finalSignature));
+    }
+}
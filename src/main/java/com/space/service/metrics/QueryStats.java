@@ -0,0 +1,83 @@
+package com.space.service.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated measurements of one endpoint and filter signature.
+ */
+public class QueryStats {
+    private final String endpoint;
+    private final String signature;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder slowRequests = new LongAdder();
+
+    QueryStats(String endpoint, String signature) {
+        this.endpoint = endpoint;
+        this.signature = signature;
+    }
+
+    void record(QueryContext context, long elapsedNanos, boolean slow) {
+        latency.record(elapsedNanos);
+        statements.add(context.getStatements());
+        rowsFetched.add(context.getRowsFetched());
+        rowsReturned.add(context.getRowsReturned());
+        if (slow)
+            slowRequests.increment();
+    }
+
+    public View view() {
+        return new View(this);
+    }
+
+    /**
+     * Point-in-time copy, serialized by the metrics endpoint.
+     */
+    public static final class View {
+        private final String endpoint;
+        private final String signature;
+        private final long requests;
+        private final long slowRequests;
+        private final double meanMs;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double maxMs;
+        private final long statements;
+        private final long rowsFetched;
+        private final long rowsReturned;
+
+        private View(QueryStats stats) {
+            this.endpoint = stats.endpoint;
+            this.signature = stats.signature;
+            this.requests = stats.latency.getCount();
+            this.slowRequests = stats.slowRequests.sum();
+            this.meanMs = stats.latency.getMeanMillis();
+            this.p50Ms = stats.latency.getPercentileMillis(0.5);
+            this.p95Ms = stats.latency.getPercentileMillis(0.95);
+            this.p99Ms = stats.latency.getPercentileMillis(0.99);
+            this.maxMs = stats.latency.getMaxMillis();
+            this.statements = stats.statements.sum();
+            this.rowsFetched = stats.rowsFetched.sum();
+            this.rowsReturned = stats.rowsReturned.sum();
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.space.service.rating;
+
+import com.space.service.validator.ShipValidator;
+import org.springframework.stereotype.Component;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.function.LongSupplier;
+
+/**
+ * Computes ship ratings, {@code 80 * speed * k / (currentYear + 1000 - prodYear + 1)} with {@code k = 0.5} for used
+ * ships, rounded half up to two decimals.
+ * <p>
+ * The current year is cached together with the instant the next year starts and only recomputed once that instant
+ * has passed. Rounding is done in primitives but exactly: the result equals
+ * {@code new BigDecimal(rating).setScale(2, RoundingMode.HALF_UP).doubleValue()} for every input.
+ */
+@Component
+public class RatingEngine {
+    private static final int YEAR_OFFSET = 1000;
+    // 2^27 + 1, splits a double into two halves whose products are exact
+    private static final double SPLITTER = 134_217_729.0;
+
+    private final LongSupplier clock;
+    private volatile Year currentYear;
+
+    public RatingEngine() {
+        this(System::currentTimeMillis);
+    }
+
+    public RatingEngine(LongSupplier clock) {
+        this.clock = clock;
+        this.currentYear = Year.containing(clock.getAsLong());
+    }
+
+    public double rate(boolean isUsed, Date prodDate, double speed) {
+        return rate(isUsed, ShipValidator.yearOf(prodDate.getTime()), speed);
+    }
+
+    public double rate(boolean isUsed, int prodYear, double speed) {
+        return rate(isUsed, prodYear, speed, currentYear());
+    }
+
+    /**
+     * Rates {@code count} ships given as parallel arrays into {@code ratings}. The current year is read once for
+     * the whole batch and the loop body is branch-light straight-line arithmetic.
+     */
+    public void rate(boolean[] isUsed, int[] prodYear, double[] speed, double[] ratings, int count) {
+        int year = currentYear();
+        for (int i = 0; i < count; i++) {
+            ratings[i] = rate(isUsed[i], prodYear[i], speed[i], year);
+        }
+    }
+
+    public int currentYear() {
+        return year().value;
+    }
+
+    /**
+     * The instant stored ratings go stale, i.e. the start of the next year.
+     */
+    public long nextYearStartMillis() {
+        return year().nextStartMillis;
+    }
+
+    private Year year() {
+        Year year = currentYear;
+        long now = clock.getAsLong();
+        if (now >= year.nextStartMillis) {
+            year = Year.containing(now);
+            currentYear = year;
+        }
+        return year;
+    }
+
+    private static double rate(boolean isUsed, int prodYear, double speed, int currentYear) {
+        double k = isUsed ? 0.5 : 1;
+        double number1 = 80 * speed * k;
+        int number2 = currentYear + YEAR_OFFSET - prodYear + 1;
+        return roundHalfUp2(number1 / number2);
+    }
+
+    /**
+     * Rounds half up, i.e. ties away from zero, to two decimals. The scaled value {@code value * 100} is computed
+     * together with its rounding error (Dekker's exact product), so ties are decided on the exact binary value of
+     * {@code value} just like {@link java.math.BigDecimal} does.
+     */
+    static double roundHalfUp2(double value) {
+        if (value < 0)
+            return -roundHalfUp2(-value);
+        double product = value * 100;
+        double valueHigh = split(value);
+        double valueLow = value - valueHigh;
+        // 100 needs only 7 significant bits, so it is its own high half
+        double error = (valueHigh * 100 - product) + valueLow * 100;
+
+        double floor = Math.floor(product);
+        double fraction = product - floor;
+        boolean up = fraction > 0.5 || fraction == 0.5 && error >= 0;
+        double hundredths = up ? floor + 1 : floor;
+        return hundredths / 100;
+    }
+
+    private static double split(double value) {
+        double t = SPLITTER * value;
+        return t - (t - value);
+    }
+
+    private static final class Year {
+        private final int value;
+        private final long nextStartMillis;
+
+        private Year(int value, long nextStartMillis) {
+            this.value = value;
+            this.nextStartMillis = nextStartMillis;
+        }
+
+        static Year containing(long millis) {
+            int year = ShipValidator.yearOf(millis);
+            // runs once a year, a calendar is fine here
+            Calendar next = new GregorianCalendar(year + 1, Calendar.JANUARY, 1);
+            return new Year(year, next.getTimeInMillis());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.space.service.rating;
+
+import com.space.service.ShipService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ShipService#recomputeRatings()} right after every New Year, when all stored ratings go stale, and
+ * optionally once on startup to catch up on a New Year the application was down for.
+ */
+@Component
+public class RatingRecomputeScheduler implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(RatingRecomputeScheduler.class);
+    private static final long RETRY_DELAY_MS = 10 * 60_000;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rating-recompute-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ShipService shipService;
+    private RatingEngine ratingEngine;
+    private boolean enabled;
+    private boolean onStartup;
+
+    @Autowired
+    public void setShipService(ShipService shipService) {
+        this.shipService = shipService;
+    }
+
+    @Autowired
+    public void setRatingEngine(RatingEngine ratingEngine) {
+        this.ratingEngine = ratingEngine;
+    }
+
+    @Value("${rating.recompute.enabled:false}")
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Value("${rating.recompute.onStartup:false}")
+    public void setOnStartup(boolean onStartup) {
+        this.onStartup = onStartup;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled)
+            return;
+        if (onStartup)
+            scheduler.execute(this::recompute);
+        scheduleNext();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void scheduleNext() {
+        long delay = Math.max(0, ratingEngine.nextYearStartMillis() - System.currentTimeMillis());
+        scheduler.schedule(() -> {
+            recompute();
+            scheduleNext();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void recompute() {
+        try {
+            shipService.recomputeRatings();
+        } catch (RuntimeException e) {
+            log.error("Rating recomputation failed, retrying in {}ms", RETRY_DELAY_MS, e);
+            scheduler.schedule(this::recompute, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.space.service.rating;
+
+import com.space.service.ShipChangeTracker;
+import com.space.service.validator.ShipValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rewrites the stored rating of every ship whose rating differs from the one computed for the current year.
+ * <p>
+ * The id space is cut into ranges of {@code chunkSize} ids which {@code threads} workers claim one after another.
+ * A worker reads its range, rates it with {@link RatingEngine#rate(boolean[], int[], double[], double[], int)} and
+ * writes the changed ratings back in one JDBC batch. The update repeats the inputs it was computed from, so a ship
+ * edited in the meantime is left to the edit. After every chunk a worker sleeps long enough to stay busy only
+ * {@code dutyCycle} of the time, which leaves connections and CPU to online traffic.
+ */
+@Component
+public class RatingRecomputer {
+    private static final Logger log = LoggerFactory.getLogger(RatingRecomputer.class);
+
+    private static final String SELECT_RANGE = "SELECT id, isUsed, prodDate, speed, rating FROM ship "
+            + "WHERE id >= ? AND id < ? AND isUsed IS NOT NULL AND prodDate IS NOT NULL AND speed IS NOT NULL";
+    private static final String UPDATE_RATING = "UPDATE ship SET rating = ?, version = version + 1 "
+            + "WHERE id = ? AND isUsed = ? AND prodDate = ? AND speed = ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private RatingEngine ratingEngine;
+    private ShipChangeTracker changeTracker;
+    private int threads;
+    private int chunkSize;
+    private double dutyCycle;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    public void setRatingEngine(RatingEngine ratingEngine) {
+        this.ratingEngine = ratingEngine;
+    }
+
+    @Autowired
+    public void setChangeTracker(ShipChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @Value("${rating.recompute.threads:2}")
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, Math.min(threads, Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Value("${rating.recompute.chunkSize:1000}")
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Value("${rating.recompute.dutyCycle:0.5}")
+    public void setDutyCycle(double dutyCycle) {
+        this.dutyCycle = Math.max(0.01, Math.min(dutyCycle, 1));
+    }
+
+    /**
+     * Returns the number of ships whose rating was rewritten.
+     */
+    public long recompute() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM ship");
+        if (bounds.get("lo") == null)
+            return 0;
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+
+        long start = System.currentTimeMillis();
+        AtomicLong nextRange = new AtomicLong(lo);
+        AtomicLong updated = new AtomicLong();
+        AtomicInteger workerNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "rating-recompute-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(workers.submit(() -> {
+                    long from;
+                    while ((from = nextRange.getAndAdd(chunkSize)) <= hi) {
+                        long chunkStart = System.nanoTime();
+                        updated.addAndGet(recomputeRange(from, from + chunkSize));
+                        throttle(System.nanoTime() - chunkStart);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rating recomputation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rating recomputation failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        log.info("Recomputed ratings of ids {}..{}: {} updated in {}ms", lo, hi, updated.get(),
+                System.currentTimeMillis() - start);
+        return updated.get();
+    }
+
+    private int recomputeRange(long from, long to) {
+        Chunk chunk = new Chunk(chunkSize);
+        jdbcTemplate.query(SELECT_RANGE, rs -> {
+            double rating = rs.getDouble(5);
+            if (rs.wasNull())
+                rating = Double.NaN;
+            chunk.add(rs.getLong(1), rs.getBoolean(2), rs.getDate(3), rs.getDouble(4), rating);
+        }, from, to);
+        if (chunk.size == 0)
+            return 0;
+
+        double[] ratings = new double[chunk.size];
+        ratingEngine.rate(chunk.isUsed, chunk.prodYear, chunk.speed, ratings, chunk.size);
+
+        int[] changed = new int[chunk.size];
+        int changedCount = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            // NaN, i.e. a missing rating, never compares equal
+            if (ratings[i] != chunk.rating[i])
+                changed[changedCount++] = i;
+        }
+        if (changedCount == 0)
+            return 0;
+
+        int count = changedCount;
+        int[] results = jdbcTemplate.batchUpdate(UPDATE_RATING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                int row = changed[i];
+                statement.setDouble(1, ratings[row]);
+                statement.setLong(2, chunk.id[row]);
+                statement.setBoolean(3, chunk.isUsed[row]);
+                statement.setDate(4, chunk.prodDate[row]);
+                statement.setDouble(5, chunk.speed[row]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        });
+
+        int updated = 0;
+        for (int result : results) {
+            // rewritten batches only report that they succeeded
+            if (result > 0 || result == Statement.SUCCESS_NO_INFO)
+                updated++;
+        }
+        // the batch committed on its own, other nodes learn about it from the marker bumped right after
+        if (updated > 0)
+            changeTracker.mark();
+        return updated;
+    }
+
+    private void throttle(long busyNanos) throws InterruptedException {
+        long pauseMillis = (long) (busyNanos * (1 - dutyCycle) / dutyCycle / 1_000_000);
+        if (pauseMillis > 0)
+            Thread.sleep(pauseMillis);
+    }
+
+    private static final class Chunk {
+        private final long[] id;
+        private final boolean[] isUsed;
+        private final Date[] prodDate;
+        private final int[] prodYear;
+        private final double[] speed;
+        private final double[] rating;
+        private int size;
+
+        Chunk(int capacity) {
+            id = new long[capacity];
+            isUsed = new boolean[capacity];
+            prodDate = new Date[capacity];
+            prodYear = new int[capacity];
+            speed = new double[capacity];
+            rating = new double[capacity];
+        }
+
+        void add(long id, boolean isUsed, Date prodDate, double speed, double rating) {
+            this.id[size] = id;
+            this.isUsed[size] = isUsed;
+            this.prodDate[size] = prodDate;
+            this.prodYear[size] = ShipValidator.yearOfEpochDay(prodDate.toLocalDate().toEpochDay());
+            this.speed[size] = speed;
+            this.rating[size] = rating;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.space.service.stats;
+
+import com.space.controller.ShipGroupBy;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipGroupStats;
+import com.space.service.index.SearchKeys;
+import com.space.service.validator.ShipValidator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory rollups of every {@link ShipGroupBy} under every combination of the {@code shipType} and
+ * {@code isUsed} filters, either of them possibly absent. Each write updates the twenty affected groups, a lookup
+ * is one array access plus a pass over the groups it returns.
+ * <p>
+ * Planets are grouped and ordered the way the {@code utf8_general_ci} collation of the {@code GROUP BY} query does,
+ * by their {@link SearchKeys#fold folded} spelling. A group is labelled with the lowest of the spellings it holds,
+ * the query may pick another one of them.
+ */
+public class ShipRollup {
+    private static final int ANY = 0;
+    private static final int TYPE_SLOTS = ShipType.values().length + 1;
+    private static final int USED_SLOTS = 3;
+    private static final Comparator<Object> KEY_ORDER = Comparator.nullsFirst(ShipRollup::compareKeys);
+
+    private final Map<Object, Aggregate>[] rollups;
+
+    @SuppressWarnings("unchecked")
+    public ShipRollup() {
+        rollups = new Map[ShipGroupBy.values().length * TYPE_SLOTS * USED_SLOTS];
+        for (int i = 0; i < rollups.length; i++) {
+            rollups[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Whether the rollups can answer a filter, only {@code shipType} and {@code isUsed} are covered.
+     */
+    public static boolean covers(String name, String planet, Long after, Long before, Double minSpeed,
+                                 Double maxSpeed, Integer minCrewSize, Integer maxCrewSize, Double minRating,
+                                 Double maxRating) {
+        return name == null && planet == null && after == null && before == null && minSpeed == null
+                && maxSpeed == null && minCrewSize == null && maxCrewSize == null && minRating == null
+                && maxRating == null;
+    }
+
+    public void add(ShipView ship) {
+        add(ship, 1);
+    }
+
+    public void remove(ShipView ship) {
+        add(ship, -1);
+    }
+
+    private synchronized void add(ShipView ship, int delta) {
+        int typeSlot = ship.getShipType().ordinal() + 1;
+        int usedSlot = ship.getUsed() ? 2 : 1;
+        for (ShipGroupBy groupBy : ShipGroupBy.values()) {
+            Object key = keyOf(groupBy, ship);
+            for (int type : new int[]{ANY, typeSlot}) {
+                for (int used : new int[]{ANY, usedSlot}) {
+                    Map<Object, Aggregate> groups = rollups[slot(groupBy, type, used)];
+                    Aggregate aggregate = groups.computeIfAbsent(key, k -> new Aggregate());
+                    aggregate.add(ship, delta);
+                    if (groupBy == ShipGroupBy.PLANET && ship.getPlanet() != null)
+                        aggregate.addSpelling(ship.getPlanet(), delta);
+                    if (aggregate.count <= 0)
+                        groups.remove(key);
+                }
+            }
+        }
+    }
+
+    public synchronized List<ShipGroupStats> get(ShipGroupBy groupBy, ShipType shipType, Boolean isUsed) {
+        Map<Object, Aggregate> groups = rollups[slot(groupBy, shipType == null ? ANY : shipType.ordinal() + 1,
+                isUsed == null ? ANY : isUsed ? 2 : 1)];
+        List<Map.Entry<Object, Aggregate>> sorted = new ArrayList<>(groups.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        List<ShipGroupStats> stats = new ArrayList<>(sorted.size());
+        for (Map.Entry<Object, Aggregate> group : sorted) {
+            Aggregate aggregate = group.getValue();
+            Object key = aggregate.spellings == null || aggregate.spellings.isEmpty() ? group.getKey() : aggregate.spellings.firstKey();
+            stats.add(new ShipGroupStats(key, aggregate.count, aggregate.speedSum, aggregate.ratingSum,
+                    aggregate.crewSum, aggregate.used));
+        }
+        return stats;
+    }
+
+    private static int slot(ShipGroupBy groupBy, int type, int used) {
+        return (groupBy.ordinal() * TYPE_SLOTS + type) * USED_SLOTS + used;
+    }
+
+    private static Object keyOf(ShipGroupBy groupBy, ShipView ship) {
+        switch (groupBy) {
+            case SHIP_TYPE:
+                return ship.getShipType();
+            case PLANET:
+                return SearchKeys.fold(ship.getPlanet());
+            case IS_USED:
+                return ship.getUsed();
+            case PROD_YEAR:
+                return ShipValidator.yearOf(ship.getProdDate().getTime());
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareKeys(Object left, Object right) {
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private static final class Aggregate {
+        private long count;
+        private double speedSum;
+        private double ratingSum;
+        private long crewSum;
+        private long used;
+        // planet groups only: how many ships use each spelling of the folded key
+        private TreeMap<String, Long> spellings;
+
+        void addSpelling(String planet, int delta) {
+            if (spellings == null)
+                spellings = new TreeMap<>();
+            spellings.merge(planet, (long) delta, Long::sum);
+            if (spellings.get(planet) <= 0)
+                spellings.remove(planet);
+        }
+
+        void add(ShipView ship, int delta) {
+            count += delta;
+            speedSum += delta * ship.getSpeed();
+            ratingSum += delta * ship.getRating();
+            crewSum += delta * ship.getCrewSize();
+            if (ship.getUsed())
+                used += delta;
+        }
+    }
+}
@@ -1,51 +1,130 @@
 package com.space.service.validator;
 
-import com.space.exception.BadRequestException;
+import com.space.exception.ShipValidationException;
 import com.space.model.Ship;
 
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
 
+/**
+ * Checks ships against the API constraints. Keeps no state between calls and works on primitive day and year
+ * numbers, so it is safe to call from any number of threads, e.g. to validate import batches in parallel.
+ */
 public class ShipValidator {
-    private static Integer prodDateYear;
+    public static final int MAX_TEXT_LENGTH = 50;
+    public static final int MIN_CREW_SIZE = 1;
+    public static final int MAX_CREW_SIZE = 9999;
+    public static final int MIN_PROD_YEAR = 2800;
+    public static final int PROD_YEARS_AHEAD = 1000;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final TimeZone ZONE = TimeZone.getDefault();
 
     private ShipValidator() {
     }
 
     public static void validateForUpdate(Ship ship) {
-        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+        List<Violation> violations = validate(ship, false);
+        if (!violations.isEmpty())
+            throw new ShipValidationException(violations);
+    }
+
+    public static void validateForCreate(Ship ship) {
+        List<Violation> violations = validate(ship, true);
+        if (!violations.isEmpty())
+            throw new ShipValidationException(violations);
 
-        if (ship.getProdDate() != null) {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(ship.getProdDate());
-            prodDateYear = calendar.get(Calendar.YEAR);
+        if (ship.getUsed() == null) {
+            ship.setUsed(false);
+        }
     }
 
+    /**
+     * Every constraint {@code ship} violates, in field order. Updates only check the fields that are present,
+     * creates also require all of them and a speed within {@code [0, 1]}.
+     */
+    public static List<Violation> validate(Ship ship, boolean forCreate) {
+        List<Violation> violations = null;
+
         String name = ship.getName();
+        if (name == null) {
+            if (forCreate)
+                violations = add(violations, "name", "is required");
+        } else if (name.isEmpty() || name.length() > MAX_TEXT_LENGTH) {
+            violations = add(violations, "name", "must be 1 to " + MAX_TEXT_LENGTH + " characters long");
+        }
+
         String planet = ship.getPlanet();
-        Integer crewSize = ship.getCrewSize();
+        if (planet == null) {
+            if (forCreate)
+                violations = add(violations, "planet", "is required");
+        } else if (planet.length() > MAX_TEXT_LENGTH) {
+            violations = add(violations, "planet", "must be at most " + MAX_TEXT_LENGTH + " characters long");
+        }
 
-        if ((name != null && (name.length() > 50 || name.isEmpty()))
-                || planet != null && planet.length() > 50
-                || crewSize != null && (crewSize <1 || crewSize >9999)
-                || prodDateYear != null && (prodDateYear <2800 || prodDateYear > (currentYear + 1000))) {
+        if (ship.getShipType() == null && forCreate)
+            violations = add(violations, "shipType", "is required");
 
-            throw new BadRequestException();
+        Date prodDate = ship.getProdDate();
+        if (prodDate == null) {
+            if (forCreate)
+                violations = add(violations, "prodDate", "is required");
+        } else {
+            int prodYear = yearOf(prodDate.getTime());
+            int maxYear = yearOf(System.currentTimeMillis()) + PROD_YEARS_AHEAD;
+            if (prodYear < MIN_PROD_YEAR || prodYear > maxYear)
+                violations = add(violations, "prodDate", "year must be between " + MIN_PROD_YEAR + " and " + maxYear);
         }
-    }
 
-    public static void validateForCreate(Ship ship) {
-        validateForUpdate(ship);
-        if (ship.getName() == null
-                || ship.getPlanet() == null
-                || ship.getProdDate() == null
-                || ship.getCrewSize() == null
-                || ship.getShipType() == null
-                || ship.getSpeed() == null || (ship.getSpeed() > 1 || ship.getSpeed() < 0)) {
-            throw new BadRequestException();
+        Double speed = ship.getSpeed();
+        if (forCreate) {
+            if (speed == null)
+                violations = add(violations, "speed", "is required");
+            else if (speed < 0 || speed > 1)
+                violations = add(violations, "speed", "must be between 0 and 1");
         }
 
-        if (ship.getUsed() == null) {
-            ship.setUsed(false);
+        Integer crewSize = ship.getCrewSize();
+        if (crewSize == null) {
+            if (forCreate)
+                violations = add(violations, "crewSize", "is required");
+        } else if (crewSize < MIN_CREW_SIZE || crewSize > MAX_CREW_SIZE) {
+            violations = add(violations, "crewSize", "must be between " + MIN_CREW_SIZE + " and " + MAX_CREW_SIZE);
         }
+
+        return violations == null ? Collections.emptyList() : violations;
+    }
+
+    /**
+     * Calendar year of {@code epochMillis} in the default time zone.
+     */
+    public static int yearOf(long epochMillis) {
+        long localMillis = epochMillis + ZONE.getOffset(epochMillis);
+        return yearOfEpochDay(Math.floorDiv(localMillis, MILLIS_PER_DAY));
+    }
+
+    /**
+     * Proleptic Gregorian year of a day counted from 1970-01-01, using 400-year eras so that no date objects
+     * are needed.
+     */
+    public static int yearOfEpochDay(long epochDay) {
+        long z = epochDay + 719_468; // shift the epoch to 0000-03-01, leap days then end each year
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153; // 0 = March ... 11 = February
+        long year = yearOfEra + era * 400;
+        return (int) (monthIndex >= 10 ? year + 1 : year);
+    }
+
+    private static List<Violation> add(List<Violation> violations, String field, String message) {
+        if (violations == null)
+            violations = new ArrayList<>(2);
+        violations.add(new Violation(field, message));
+        return violations;
     }
 }
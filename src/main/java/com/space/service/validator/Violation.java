@@ -0,0 +1,27 @@
+package com.space.service.validator;
+
+/**
+ * A single failed constraint of a ship: the offending field and what is wrong with it.
+ */
+public final class Violation {
+    private final String field;
+    private final String message;
+
+    public Violation(String field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+}
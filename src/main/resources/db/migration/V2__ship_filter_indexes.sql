@@ -0,0 +1,14 @@
+-- Indexes for the listing filters and orders.
+--
+-- shipType and isUsed are the equality filters the UI sends most, rating the range filter and order most often
+-- combined with them, so one composite index serves all three.
+-- Every ShipOrder sorts by its column with the id as a tiebreaker, which is also the keyset of cursor pagination,
+-- so each sortable column gets a (column, id) index: ORDER BY ... LIMIT and the seek predicate
+-- column > ? OR (column = ? AND id > ?) then read the index in order instead of sorting a full scan. The same
+-- indexes serve the date, speed and rating range filters.
+-- Name and planet are substring matches that no B-tree index can serve, they are left to the search index.
+ALTER TABLE ship
+    ADD INDEX ix_ship_type_used_rating (shipType, isUsed, rating),
+    ADD INDEX ix_ship_prodDate_id (prodDate, id),
+    ADD INDEX ix_ship_speed_id (speed, id),
+    ADD INDEX ix_ship_rating_id (rating, id);
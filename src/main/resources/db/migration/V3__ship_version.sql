@@ -0,0 +1,3 @@
+-- Row version for optimistic locking and ETags, every write to a ship increments it.
+ALTER TABLE ship
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
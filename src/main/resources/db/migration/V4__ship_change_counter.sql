@@ -0,0 +1,24 @@
+-- Change counter of the ship table, the ETag of the listings. Triggers bump it in the transaction of every write,
+-- whichever process or tool makes it, so every application node reads the same value. Writers queue on its one row
+-- until they commit.
+CREATE TABLE IF NOT EXISTS ship_changes
+(
+    id      TINYINT NOT NULL,
+    changes BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+)
+    ENGINE = InnoDB;
+
+INSERT IGNORE INTO ship_changes (id, changes) VALUES (1, 0);
+
+DROP TRIGGER IF EXISTS ship_changes_insert;
+CREATE TRIGGER ship_changes_insert AFTER INSERT ON ship
+    FOR EACH ROW UPDATE ship_changes SET changes = changes + 1 WHERE id = 1;
+
+DROP TRIGGER IF EXISTS ship_changes_update;
+CREATE TRIGGER ship_changes_update AFTER UPDATE ON ship
+    FOR EACH ROW UPDATE ship_changes SET changes = changes + 1 WHERE id = 1;
+
+DROP TRIGGER IF EXISTS ship_changes_delete;
+CREATE TRIGGER ship_changes_delete AFTER DELETE ON ship
+    FOR EACH ROW UPDATE ship_changes SET changes = changes + 1 WHERE id = 1;
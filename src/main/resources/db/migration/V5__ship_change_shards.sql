@@ -0,0 +1,18 @@
+-- The per-row triggers of V4 made every writer queue on the one ship_changes row until it committed. The change
+-- marker is now bumped by the application once per write transaction, on one of 16 rows picked at random.
+DROP TRIGGER IF EXISTS ship_changes_insert;
+DROP TRIGGER IF EXISTS ship_changes_update;
+DROP TRIGGER IF EXISTS ship_changes_delete;
+DROP TABLE IF EXISTS ship_changes;
+
+CREATE TABLE IF NOT EXISTS ship_change_shards
+(
+    shard   TINYINT NOT NULL,
+    changes BIGINT  NOT NULL,
+    PRIMARY KEY (shard)
+)
+    ENGINE = InnoDB;
+
+INSERT IGNORE INTO ship_change_shards (shard, changes)
+VALUES (0, 0), (1, 0), (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0),
+       (8, 0), (9, 0), (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0);
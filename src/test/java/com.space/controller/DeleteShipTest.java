@@ -19,6 +19,7 @@ import org.springframework.web.context.WebApplicationContext;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -71,6 +72,54 @@ public class DeleteShipTest {
                 .andExpect(status().isNotFound());
     }
 
+    //test5
+    @Test
+    public void deleteShipsByIdsTest() throws Exception {
+        mockMvc.perform(delete("/rest/ships?ids=2,3,415")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        mockMvc.perform(get("/rest/ships/2")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/rest/ships/count")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(content().string("38"));
+    }
+
+    //test6
+    @Test
+    public void deleteShipsByFiltersTest() throws Exception {
+        String matching = mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&isUsed=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(delete("/rest/ships?shipType=MILITARY&isUsed=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(content().string(matching));
+
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&isUsed=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(content().string("0"));
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(content().string(String.valueOf(13 - Long.parseLong(matching))));
+    }
+
+    //test7
+    @Test
+    public void deleteShipsWithoutCriteriaTest() throws Exception {
+        mockMvc.perform(delete("/rest/ships")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/rest/ships?ids=1&shipType=MILITARY")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
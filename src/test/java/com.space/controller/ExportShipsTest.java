@@ -0,0 +1,93 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ExportShipsTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void exportWithoutFiltersReturnsAllShipsAsNdjson() throws Exception {
+        List<ShipInfoTest> actual = export("/rest/ships/export");
+
+        assertTrue("Экспорт без фильтров возвращает не все корабли.", actual.equals(testsHelper.getAllShips()));
+    }
+
+    //test2
+    @Test
+    public void exportWithFiltersShipTypeMaxRating() throws Exception {
+        List<ShipInfoTest> actual = export("/rest/ships/export?shipType=MERCHANT&maxRating=2.0");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByMaxRating(2.0,
+                testsHelper.getShipInfosByShipType(ShipType.MERCHANT,
+                        testsHelper.getAllShips()));
+
+        assertTrue("Экспорт с фильтрами shipType и maxRating возвращает не правильные корабли.", actual.equals(expected));
+    }
+
+    //test3
+    @Test
+    public void exportWithoutMatchesReturnsEmptyBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/ships/export?name=NoSuchShipName"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue("Экспорт без подходящих кораблей возвращает не пустое тело.",
+                result.getResponse().getContentAsString().isEmpty());
+    }
+
+    private List<ShipInfoTest> export(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MainController.NDJSON))
+                .andReturn();
+
+        List<ShipInfoTest> ships = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            if (!line.isEmpty())
+                ships.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,96 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetAllWithCursorTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getAllWithCursorWalksAllShipsOrderedById() throws Exception {
+        List<ShipInfoTest> actual = walkAllPages("ID", 7);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.ID, testsHelper.getAllShips());
+
+        assertTrue("Постраничный обход по курсору с order=ID возвращает не все корабли.", actual.equals(expected));
+    }
+
+    //test2
+    @Test
+    public void getAllWithCursorWalksAllShipsOrderedBySpeedWithIdTiebreaker() throws Exception {
+        List<ShipInfoTest> actual = walkAllPages("SPEED", 3);
+        List<ShipInfoTest> expected = new ArrayList<>(testsHelper.getAllShips());
+        expected.sort(Comparator.comparing((ShipInfoTest s) -> s.speed).thenComparing(s -> s.id));
+
+        assertTrue("Постраничный обход по курсору с order=SPEED возвращает не все корабли.", actual.equals(expected));
+    }
+
+    //test3
+    @Test
+    public void getAllWithMalformedCursor() throws Exception {
+        mockMvc.perform(get("/rest/ships?cursor=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ShipInfoTest> walkAllPages(String order, int pageSize) throws Exception {
+        List<ShipInfoTest> ships = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            MvcResult result = mockMvc.perform(get("/rest/ships")
+                    .param("order", order)
+                    .param("pageSize", String.valueOf(pageSize))
+                    .param("cursor", cursor)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            ships.addAll(mapper.readValue(result.getResponse().getContentAsString(), typeReference));
+            cursor = result.getResponse().getHeader(MainController.NEXT_CURSOR_HEADER);
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,93 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetPageTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getPageWithFiltersShipTypeMinSpeedReturnsItemsAndTotal() throws Exception {
+        JsonNode page = perform("/rest/ships/page?shipType=MILITARY&minSpeed=0.3&pageNumber=1");
+
+        List<ShipInfoTest> filtered = testsHelper.getShipInfosByMinSpeed(0.3,
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                        testsHelper.getAllShips()));
+        List<ShipInfoTest> actual = mapper.readValue(mapper.treeAsTokens(page.get("items")), typeReference);
+
+        assertTrue("Возвращается не правильная страница при запросе GET /rest/ships/page.",
+                actual.equals(testsHelper.getShipInfosByPage(1, 3, filtered)));
+        assertTrue("Возвращается не правильное количество при запросе GET /rest/ships/page.",
+                page.get("total").asLong() == filtered.size());
+    }
+
+    //test2
+    @Test
+    public void getPageWithLastPartialPageReturnsTotal() throws Exception {
+        JsonNode page = perform("/rest/ships/page?pageNumber=4&pageSize=9");
+
+        assertTrue("Возвращается не правильное количество для последней страницы GET /rest/ships/page.",
+                page.get("items").size() == 4 && page.get("total").asLong() == testsHelper.getAllShips().size());
+    }
+
+    //test3
+    @Test
+    public void getPageWithoutCountReturnsNoTotal() throws Exception {
+        JsonNode page = perform("/rest/ships/page?count=NONE");
+
+        assertTrue("При count=NONE количество не должно возвращаться.", page.get("total").isNull());
+    }
+
+    private JsonNode perform(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetQueryMetricsTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        mockMvc.perform(delete("/rest/metrics/queries")).andExpect(status().isOk());
+    }
+
+    //test1
+    @Test
+    public void requestsAreGroupedByFilterSignature() throws Exception {
+        mockMvc.perform(get("/rest/ships?shipType=MILITARY&maxRating=2&order=RATING")).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships?maxRating=5&shipType=TRANSPORT&order=RATING")).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/count")).andExpect(status().isOk());
+
+        JsonNode metrics = mapper.readTree(mockMvc.perform(get("/rest/metrics/queries"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        boolean found = false;
+        for (JsonNode stats : metrics) {
+            if (stats.get("endpoint").asText().equals("GET /rest/ships")
+                    && stats.get("signature").asText().equals("shipType,maxRating order=RATING")) {
+                found = true;
+                assertTrue("Запросы с одинаковым набором фильтров должны учитываться вместе.",
+                        stats.get("requests").asLong() == 2);
+                assertTrue("Количество возвращенных кораблей не учитывается.",
+                        stats.get("rowsReturned").asLong() > 0);
+            }
+        }
+        assertTrue("Метрики запроса GET /rest/ships не найдены.", found);
+        assertTrue("Метрики должны содержать обе сигнатуры.", metrics.size() == 2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetStatsTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getStatsGroupedByShipTypeWithMinSpeed() throws Exception {
+        JsonNode stats = perform("/rest/ships/stats?groupBy=SHIP_TYPE&minSpeed=0.3");
+
+        assertTrue("Статистика с фильтром minSpeed должна считаться запросом.",
+                "QUERY".equals(stats.get("source").asText()));
+        for (JsonNode group : stats.get("groups")) {
+            List<ShipInfoTest> expected = testsHelper.getShipInfosByShipType(ShipType.valueOf(group.get("key").asText()),
+                    testsHelper.getShipInfosByMinSpeed(0.3, testsHelper.getAllShips()));
+            double avgSpeed = expected.stream().mapToDouble(ship -> ship.speed).average().orElse(0);
+
+            assertTrue("Возвращается не правильное количество в группе при запросе GET /rest/ships/stats.",
+                    group.get("count").asLong() == expected.size());
+            assertTrue("Возвращается не правильная средняя скорость при запросе GET /rest/ships/stats.",
+                    Math.abs(group.get("avgSpeed").asDouble() - avgSpeed) < 1e-9);
+        }
+    }
+
+    //test2
+    @Test
+    public void getStatsWithUnknownGroupByReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/rest/ships/stats?groupBy=COLOR")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode perform(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString());
+    }
+}
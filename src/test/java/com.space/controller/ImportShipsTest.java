@@ -0,0 +1,90 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ImportShipsTest {
+
+    @Autowired
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void importShipsFromJsonArray() throws Exception {
+        String body = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.IS_USED_TRUE_JSON + "]";
+
+        JsonNode result = importShips(body, MediaType.APPLICATION_JSON);
+
+        assertTrue("Корабли из JSON массива не импортированы.",
+                result.get("imported").asLong() == 2 && result.get("failed").asLong() == 0);
+        assertTrue("Количество кораблей после импорта не правильное.",
+                count() == testsHelper.getAllShips().size() + 2);
+    }
+
+    //test2
+    @Test
+    public void importShipsFromNdjsonReportsInvalidItems() throws Exception {
+        String body = TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NO_SPEED_JSON + "\n" + TestsHelper.NO_IS_USED_JSON + "\n";
+
+        JsonNode result = importShips(body, MediaType.parseMediaType("application/x-ndjson"));
+
+        assertTrue("Не правильный результат импорта NDJSON с невалидным кораблем.",
+                result.get("imported").asLong() == 2 && result.get("failed").asLong() == 1
+                        && result.get("errors").get(0).get("index").asLong() == 1);
+        assertTrue("Количество кораблей после импорта не правильное.",
+                count() == testsHelper.getAllShips().size() + 2);
+    }
+
+    private JsonNode importShips(String body, MediaType contentType) throws Exception {
+        MvcResult result = mockMvc.perform(post("/rest/ships/bulk")
+                .contentType(contentType)
+                .content(body)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private long count() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rest/ships/count")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn();
+        return Long.parseLong(result.getResponse().getContentAsString());
+    }
+}
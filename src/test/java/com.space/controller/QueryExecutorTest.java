@@ -0,0 +1,71 @@
+package com.space.controller;
+
+import com.space.exception.ServiceUnavailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class QueryExecutorTest {
+
+    private QueryExecutor queryExecutor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        queryExecutor = new QueryExecutor();
+        queryExecutor.setThreads(1);
+        queryExecutor.setQueueCapacity(1);
+        queryExecutor.setTimeoutMs(5000);
+        queryExecutor.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        queryExecutor.destroy();
+    }
+
+    @Test
+    public void deliversResult() throws InterruptedException {
+        DeferredResult<Integer> result = queryExecutor.submit(() -> 42);
+        assertEquals(42, awaitResult(result));
+    }
+
+    @Test
+    public void deliversException() throws InterruptedException {
+        IllegalStateException failure = new IllegalStateException();
+        DeferredResult<Integer> result = queryExecutor.submit(() -> {
+            throw failure;
+        });
+        assertSame(failure, awaitResult(result));
+    }
+
+    @Test(expected = ServiceUnavailableException.class)
+    public void refusesWhenQueueIsFull() {
+        queryExecutor.submit(this::block);
+        queryExecutor.submit(this::block);
+        queryExecutor.submit(this::block);
+    }
+
+    private Object block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static Object awaitResult(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        return result.getResult();
+    }
+}
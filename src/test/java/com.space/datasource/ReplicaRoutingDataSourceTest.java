@@ -0,0 +1,266 @@
+package com.space.datasource;
+
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Routes through a real transaction manager to stand-in databases that count the connections they hand out.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String SELECT = "select s.id from ship s";
+    private static final String UPDATE = "update ship set rating = 1";
+
+    private final FakeDatabase primary = new FakeDatabase();
+    private final FakeDatabase first = new FakeDatabase();
+    private final FakeDatabase second = new FakeDatabase();
+    private ReplicaRoutingDataSource dataSource;
+
+    @After
+    public void tearDown() throws IOException {
+        dataSource.close();
+    }
+
+    @Test
+    public void readOnlyTransactionsAreBalancedOverReplicas() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 0, 0);
+        primary.connections.set(0);
+
+        for (int i = 0; i < 4; i++) {
+            query(true);
+        }
+
+        assertEquals(0, primary.connections.get());
+        assertEquals(2, first.connections.get());
+        assertEquals(2, second.connections.get());
+    }
+
+    @Test
+    public void writesGoToPrimary() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 0, 0);
+        primary.connections.set(0);
+
+        query(false);
+
+        assertEquals(1, primary.connections.get());
+        assertEquals(0, first.connections.get() + second.connections.get());
+    }
+
+    @Test
+    public void readsStayOnPrimaryAfterWrite() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 60_000, 0);
+        primary.connections.set(0);
+
+        execute(false, UPDATE);
+        query(true);
+
+        assertEquals(2, primary.connections.get());
+        assertEquals(0, first.connections.get() + second.connections.get());
+    }
+
+    @Test
+    public void readsInReadWriteTransactionDoNotStick() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 60_000, 0);
+        primary.connections.set(0);
+
+        execute(false, SELECT);
+        query(true);
+
+        assertEquals(1, primary.connections.get());
+        assertEquals(1, first.connections.get() + second.connections.get());
+    }
+
+    @Test
+    public void rolledBackWriteDoesNotStick() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 60_000, 0);
+        primary.connections.set(0);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.execute(status -> {
+            prepare(DataSourceUtils.getConnection(dataSource), UPDATE);
+            status.setRollbackOnly();
+            return null;
+        });
+        query(true);
+
+        assertEquals(1, primary.connections.get());
+        assertEquals(1, first.connections.get() + second.connections.get());
+    }
+
+    @Test
+    public void autoCommitWriteSticksOnceClosed() throws SQLException {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 60_000, 0);
+        primary.connections.set(0);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().executeUpdate(UPDATE);
+        }
+        query(true);
+
+        assertEquals(2, primary.connections.get());
+    }
+
+    @Test
+    public void replicaReadsWithinLagAreFlagged() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 0, 60_000);
+
+        query(true);
+        assertFalse(ReplicaRoutingDataSource.isLaggingRead());
+
+        execute(false, UPDATE);
+        query(true);
+        assertTrue(ReplicaRoutingDataSource.isLaggingRead());
+        assertEquals(2, first.connections.get() + second.connections.get());
+    }
+
+    @Test
+    public void jpaReadOnlyTransactionsGoToReplicasAndWritesStick() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 60_000, 0);
+        primary.connections.set(0);
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.space.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        factory.setJpaProperties(properties);
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        try {
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            transactionManager.afterPropertiesSet();
+
+            jpa(transactionManager, true, SELECT);
+            jpa(transactionManager, false, SELECT);
+            jpa(transactionManager, true, SELECT);
+            assertEquals(1, primary.connections.get());
+            assertEquals(2, first.connections.get() + second.connections.get());
+
+            jpa(transactionManager, false, UPDATE);
+            jpa(transactionManager, true, SELECT);
+            assertEquals(3, primary.connections.get());
+            assertEquals(2, first.connections.get() + second.connections.get());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    public void failedReplicaIsSkippedUntilHealthy() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 0, 0);
+        first.down = true;
+
+        for (int i = 0; i < 4; i++) {
+            query(true);
+        }
+        assertEquals(0, first.connections.get());
+        assertEquals(4, second.connections.get());
+        assertEquals(1, dataSource.getHealthyReplicas());
+
+        first.down = false;
+        dataSource.checkHealth();
+        assertEquals(2, dataSource.getHealthyReplicas());
+    }
+
+    @Test
+    public void readsFallBackToPrimaryWithoutHealthyReplica() {
+        dataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(first, second), 0, 0, 0);
+        primary.connections.set(0);
+        first.down = true;
+        second.down = true;
+        dataSource.checkHealth();
+
+        query(true);
+
+        assertEquals(1, primary.connections.get());
+        assertEquals(0, dataSource.getHealthyReplicas());
+    }
+
+    private void query(boolean readOnly) {
+        execute(readOnly, SELECT);
+    }
+
+    private void execute(boolean readOnly, String sql) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        transactionTemplate.execute(status -> prepare(DataSourceUtils.getConnection(dataSource), sql));
+    }
+
+    /**
+     * Runs {@code sql} on the JDBC connection of a JPA transaction, which the Hibernate dialect marks read-only.
+     */
+    private static void jpa(JpaTransactionManager transactionManager, boolean readOnly, String sql) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        transactionTemplate.execute(status -> {
+            EntityManagerFactoryUtils.getTransactionalEntityManager(transactionManager.getEntityManagerFactory())
+                    .unwrap(Session.class).doWork(connection -> prepare(connection, sql));
+            return null;
+        });
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql) {
+        try {
+            return connection.prepareStatement(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class FakeDatabase extends AbstractDataSource {
+        private final AtomicInteger connections = new AtomicInteger();
+        private volatile boolean down;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down)
+                throw new SQLException("Communications link failure", "08S01");
+            connections.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class[]{Connection.class}, (proxy, method, args) -> {
+                        Class<?> type = method.getReturnType();
+                        if (type == boolean.class)
+                            return method.getName().equals("isValid") || method.getName().equals("getAutoCommit");
+                        if (type == Statement.class)
+                            return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                                    new Class[]{Statement.class}, (statement, statementMethod, statementArgs) ->
+                                            statementMethod.getReturnType() == int.class ? 0 : null);
+                        if (type == int.class)
+                            return method.getName().equals("getTransactionIsolation")
+                                    ? Connection.TRANSACTION_REPEATABLE_READ : 0;
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.space.datasource;
+
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the migrations against the test database and checks with {@code EXPLAIN} that the listing queries can use
+ * the intended indexes. The test table is tiny, so the optimizer may still prefer a scan; the checks therefore look
+ * at {@code possible_keys}, and the captured plan is part of every failure message.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = TestDataSourceConfig.class)
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipIndexPlanTest {
+
+    @Autowired
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // test.sql recreates the ship table without indexes, but with the columns added by later migrations
+        jdbcTemplate.execute("ALTER TABLE ship DROP COLUMN version");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS schema_version");
+        new SchemaMigrator(dataSource, "db/migration").migrate();
+    }
+
+    @Test
+    public void migrateIsIdempotent() {
+        assertEquals(0, new SchemaMigrator(dataSource, "db/migration").migrate());
+    }
+
+    @Test
+    public void shipTypeIsUsedAndRatingFilterCanUseCompositeIndex() {
+        assertPossibleKey("ix_ship_type_used_rating",
+                "SELECT * FROM ship WHERE shipType = 'MILITARY' AND isUsed = false AND rating <= 2.0");
+    }
+
+    @Test
+    public void prodDateRangeCanUseDateIndex() {
+        assertPossibleKey("ix_ship_prodDate_id",
+                "SELECT * FROM ship WHERE prodDate >= '2990-01-01' AND prodDate <= '3000-01-01'");
+    }
+
+    @Test
+    public void speedRangeCanUseSpeedIndex() {
+        assertPossibleKey("ix_ship_speed_id", "SELECT * FROM ship WHERE speed >= 0.9");
+    }
+
+    @Test
+    public void ratingKeysetSeekCanUseRatingIndex() {
+        assertPossibleKey("ix_ship_rating_id",
+                "SELECT * FROM ship WHERE rating > 1.5 OR (rating = 1.5 AND id > 10) ORDER BY rating, id LIMIT 20");
+    }
+
+    private void assertPossibleKey(String index, String sql) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+        Object possibleKeys = plan.get(0).get("possible_keys");
+
+        assertTrue(sql + "\n" + plan, possibleKeys != null && possibleKeys.toString().contains(index));
+    }
+}
@@ -0,0 +1,89 @@
+package com.space.generator;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.rating.RatingEngine;
+import com.space.service.validator.ShipValidator;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FleetGeneratorTest {
+
+    private final RatingEngine ratingEngine = new RatingEngine();
+
+    @Test
+    public void generatedShipsAreValidAndRated() {
+        FleetGenerator generator = new FleetGenerator(new FleetDistribution(), 1, ratingEngine);
+        Calendar calendar = Calendar.getInstance();
+
+        for (int i = 0; i < 10_000; i++) {
+            Ship ship = generator.next();
+            ShipValidator.validateForCreate(ship);
+            calendar.setTime(ship.getProdDate());
+            assertTrue(calendar.get(Calendar.YEAR) >= 2800 && calendar.get(Calendar.YEAR) <= 3019);
+            assertEquals(ratingEngine.rate(ship.getUsed(), ship.getProdDate(), ship.getSpeed()), ship.getRating(), 0);
+        }
+    }
+
+    @Test
+    public void sameSeedGeneratesSameFleet() {
+        FleetGenerator first = new FleetGenerator(new FleetDistribution(), 7, ratingEngine);
+        FleetGenerator second = new FleetGenerator(new FleetDistribution(), 7, ratingEngine);
+
+        for (int i = 0; i < 100; i++) {
+            Ship a = first.next();
+            Ship b = second.next();
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getProdDate(), b.getProdDate());
+            assertEquals(a.getSpeed(), b.getSpeed());
+            assertEquals(a.getCrewSize(), b.getCrewSize());
+        }
+    }
+
+    @Test
+    public void shipTypesFollowTheirWeights() {
+        Properties properties = new Properties();
+        properties.setProperty("fleet.shipTypes", "MERCHANT:3, MILITARY:1, TRANSPORT:0");
+        properties.setProperty("fleet.usedRatio", "0");
+        FleetGenerator generator = new FleetGenerator(FleetDistribution.fromProperties(properties), 3, ratingEngine);
+
+        Map<ShipType, Integer> counts = new EnumMap<>(ShipType.class);
+        for (int i = 0; i < 40_000; i++) {
+            Ship ship = generator.next();
+            counts.merge(ship.getShipType(), 1, Integer::sum);
+            assertEquals(false, ship.getUsed());
+        }
+
+        assertEquals(null, counts.get(ShipType.TRANSPORT));
+        assertEquals(30_000, counts.get(ShipType.MERCHANT), 600);
+        assertEquals(10_000, counts.get(ShipType.MILITARY), 600);
+    }
+
+    @Test
+    public void planetsCanBeRestricted() {
+        FleetDistribution distribution = new FleetDistribution();
+        Map<String, Double> planets = new LinkedHashMap<>();
+        planets.put("Mars", 1.0);
+        distribution.setPlanets(planets);
+        FleetGenerator generator = new FleetGenerator(distribution, 5, ratingEngine);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("Mars", generator.next().getPlanet());
+        }
+    }
+
+    @Test
+    public void insertSqlHasOneValuesGroupPerRow() {
+        String sql = FleetGenerator.insertSql(3);
+
+        assertTrue(sql.endsWith("VALUES (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.space.service.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void getCountsHitsAndMisses() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 60_000);
+        cache.put(1L, "Orion III");
+
+        assertEquals("Orion III", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void putEvictsLeastRecentlyUsedBeyondMaxSize() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(16, 60_000);
+        // keys 0 and 16 share a segment with room for a single entry
+        cache.put(0L, "Daedalus");
+        cache.put(16L, "Hermes");
+
+        assertNull(cache.get(0L));
+        assertEquals("Hermes", cache.get(16L));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void getDropsExpiredEntries() throws InterruptedException {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 1);
+        cache.put(1L, "Titan");
+        Thread.sleep(5);
+
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void invalidateAndDisabledCache() {
+        BoundedCache<Long, String> cache = new BoundedCache<>(100, 60_000);
+        cache.put(1L, "Tardis");
+        cache.invalidate(1L);
+        BoundedCache<Long, String> disabled = new BoundedCache<>(0, 60_000);
+        disabled.put(1L, "Tardis");
+
+        assertNull(cache.get(1L));
+        assertNull(disabled.get(1L));
+    }
+}
@@ -0,0 +1,85 @@
+package com.space.service.cache;
+
+import com.space.controller.ShipGroupBy;
+import com.space.controller.ShipOrder;
+import com.space.model.ShipType;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ShipQueryShapeTest {
+
+    @Test
+    public void filtersDependOnPresenceOnly() {
+        assertEquals(ShipQueryShape.filters("ori", null, ShipType.MILITARY, null, null, true,
+                        null, 0.5, null, null, 1.0, null),
+                ShipQueryShape.filters("hawk", null, ShipType.MERCHANT, null, null, false,
+                        null, 0.9, null, null, 3.5, null));
+    }
+
+    @Test
+    public void shapeSeparatesKindAndOrder() {
+        int filters = ShipQueryShape.SHIP_TYPE | ShipQueryShape.MAX_RATING;
+
+        assertNotEquals(ShipQueryShape.of(ShipQueryShape.Kind.LIST, ShipOrder.RATING, filters),
+                ShipQueryShape.of(ShipQueryShape.Kind.COUNT, ShipOrder.RATING, filters));
+        assertNotEquals(ShipQueryShape.of(ShipQueryShape.Kind.LIST, ShipOrder.RATING, filters),
+                ShipQueryShape.of(ShipQueryShape.Kind.LIST, ShipOrder.SPEED, filters));
+        assertNotEquals(ShipQueryShape.of(ShipQueryShape.Kind.LIST, null, filters),
+                ShipQueryShape.of(ShipQueryShape.Kind.LIST, ShipOrder.ID, filters));
+    }
+
+    @Test
+    public void toJpqlRendersNamedParameters() {
+        int shape = ShipQueryShape.of(ShipQueryShape.Kind.LIST, ShipOrder.RATING,
+                ShipQueryShape.NAME | ShipQueryShape.SHIP_TYPE | ShipQueryShape.MAX_RATING);
+
+        assertEquals("select new com.space.model.ShipView(s.id, s.name, s.planet, s.shipType, s.prodDate, s.isUsed,"
+                + " s.speed, s.crewSize, s.rating, s.version) from Ship s"
+                + " where s.name like :name escape '!' and s.shipType = :shipType"
+                + " and s.rating <= :maxRating order by s.rating", ShipQueryShape.toJpql(shape));
+    }
+
+    @Test
+    public void toJpqlRendersKeysetSeek() {
+        int shape = ShipQueryShape.of(ShipQueryShape.Kind.EXPORT, ShipOrder.SPEED,
+                ShipQueryShape.PLANET | ShipQueryShape.PLANET_BY_IDS | ShipQueryShape.SEEK);
+
+        assertEquals("select s from Ship s where s.id in :planetIds"
+                        + " and (s.speed > :seekValue or (s.speed = :seekValue and s.id > :seekId))"
+                        + " order by s.speed, s.id", ShipQueryShape.toJpql(shape));
+    }
+
+    @Test
+    public void toJpqlRendersCountAndIds() {
+        assertEquals("select count(s) from Ship s",
+                ShipQueryShape.toJpql(ShipQueryShape.of(ShipQueryShape.Kind.COUNT, null, 0)));
+        assertEquals("select s.id from Ship s where s.isUsed = :isUsed and s.id > :seekId order by s.id",
+                ShipQueryShape.toJpql(ShipQueryShape.of(ShipQueryShape.Kind.IDS, ShipOrder.ID,
+                        ShipQueryShape.IS_USED | ShipQueryShape.SEEK)));
+    }
+
+    @Test
+    public void toJpqlRendersGroupedStats() {
+        assertEquals("select year(s.prodDate), count(s), sum(s.speed), sum(s.rating), sum(s.crewSize),"
+                        + " sum(case when s.isUsed = true then 1 else 0 end) from Ship s"
+                        + " where s.shipType = :shipType group by year(s.prodDate) order by year(s.prodDate)",
+                ShipQueryShape.toJpql(ShipQueryShape.stats(ShipGroupBy.PROD_YEAR, ShipQueryShape.SHIP_TYPE)));
+        assertEquals("select count(s), sum(s.speed), sum(s.rating), sum(s.crewSize),"
+                        + " sum(case when s.isUsed = true then 1 else 0 end) from Ship s",
+                ShipQueryShape.toJpql(ShipQueryShape.stats(ShipGroupBy.NONE, 0)));
+    }
+
+    @Test
+    public void everyFilterCombinationRendersItsOwnQuery() {
+        Set<String> queries = new HashSet<>();
+        for (int filters = 0; filters < 1 << 12; filters++) {
+            queries.add(ShipQueryShape.toJpql(ShipQueryShape.of(ShipQueryShape.Kind.COUNT, null, filters)));
+        }
+        assertEquals(1 << 12, queries.size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.space.service.count;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void everyHundredthLandsInItsOwnBin() {
+        Histogram speed = new Histogram(0.01, 0, 1, 100);
+        for (int i = 0; i < 100; i++) {
+            speed.add(i / 100.0, 1);
+        }
+
+        // the outermost bins are unbounded, only the inner ones can be counted exactly
+        for (int i = 1; i < 99; i++) {
+            Histogram.RangeCount count = speed.count(i / 100.0, i / 100.0);
+            assertEquals(i + "/100", 1, count.lower);
+            assertEquals(i + "/100", 1, count.upper);
+        }
+    }
+
+    @Test
+    public void valuesOnRangeEdgesAreCounted() {
+        Histogram speed = new Histogram(0.01, 0, 1, 100);
+        speed.add(0.29, 1);
+        speed.add(0.35, 1);
+
+        Histogram.RangeCount count = speed.count(0.29, 0.35);
+
+        assertEquals(2, count.lower);
+        assertEquals(2, count.upper);
+        assertEquals(2, count.estimate, 1e-9);
+    }
+
+    @Test
+    public void rangesEndingInsideBinsAreBounded() {
+        Histogram rating = new Histogram(0.01, 0, 50, 160);
+        for (double value : new double[]{0.49, 0.5, 1.0, 1.49, 1.5, 1.99}) {
+            rating.add(value, 1);
+        }
+
+        Histogram.RangeCount count = rating.count(0.5, 1.5);
+
+        // 0.5 up to 1.49 fill whole bins, 1.5 shares its bin with 1.99
+        assertEquals(3, count.lower);
+        assertEquals(5, count.upper);
+        assertTrue(count.lower <= count.estimate && count.estimate <= count.upper);
+    }
+
+    @Test
+    public void boundsBetweenUnitsRoundInwards() {
+        Histogram speed = new Histogram(0.01, 0, 1, 100);
+        speed.add(0.29, 1);
+        speed.add(0.3, 1);
+
+        assertEquals(1, speed.count(0.295, null).upper);
+        assertEquals(1, speed.count(null, 0.295).upper);
+    }
+
+    @Test
+    public void offGridValuesOnRangeEdgesStayWithinBounds() {
+        Histogram speed = new Histogram(0.01, 0, 1, 100);
+        speed.add(0.125, 1);
+        speed.add(0.12, 1);
+
+        Histogram.RangeCount upTo = speed.count(null, 0.125);
+        Histogram.RangeCount from = speed.count(0.125, null);
+        Histogram.RangeCount around = speed.count(0.12, 0.13);
+
+        // 0.125 lies between the units 12 and 13, a bound on it can't tell which side it falls on
+        assertEquals(1, upTo.lower);
+        assertEquals(2, upTo.upper);
+        assertEquals(0, from.lower);
+        assertEquals(1, from.upper);
+        assertEquals(2, around.lower);
+        assertEquals(2, around.upper);
+
+        speed.add(0.125, -1);
+        assertEquals(1, speed.count(null, 0.125).upper);
+    }
+}
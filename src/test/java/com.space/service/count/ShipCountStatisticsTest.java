@@ -0,0 +1,91 @@
+package com.space.service.count;
+
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipCount;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShipCountStatisticsTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ShipCountStatistics statistics;
+
+    @Before
+    public void setup() {
+        statistics = new ShipCountStatistics();
+        for (ShipInfoTest info : testsHelper.getAllShips()) {
+            statistics.add(toView(info));
+        }
+    }
+
+    @Test
+    public void bucketCountsAreExact() {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByIsUsed(false,
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()));
+
+        ShipCount count = statistics.estimate(ShipType.MILITARY, false, null, null, null, null, null, null, null, null);
+
+        assertEquals(expected.size(), count.getCount());
+        assertTrue(count.isExact());
+        assertEquals(testsHelper.getAllShips().size(), statistics.total());
+    }
+
+    @Test
+    public void rangeEstimatesAreBounded() {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByMaxRating(6.0,
+                testsHelper.getShipInfosByMinCrewSize(100,
+                        testsHelper.getShipInfosByMinSpeed(0.3,
+                                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()))));
+
+        ShipCount count = statistics.estimate(ShipType.MILITARY, null, null, null, 0.3, null, 100, null, null, 6.0);
+
+        assertBounds(expected.size(), count);
+    }
+
+    @Test
+    public void prodDateEstimatesAreBounded() {
+        long after = new GregorianCalendar(2900, Calendar.JANUARY, 1).getTimeInMillis();
+        long before = new GregorianCalendar(2910, Calendar.JANUARY, 1).getTimeInMillis();
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByBefore(before,
+                testsHelper.getShipInfosByAfter(after, testsHelper.getAllShips()));
+
+        ShipCount count = statistics.estimate(null, null, after, before, null, null, null, null, null, null);
+
+        assertBounds(expected.size(), count);
+    }
+
+    @Test
+    public void removeUndoesAdd() {
+        ShipInfoTest info = testsHelper.getAllShips().get(0);
+        long before = statistics.estimate(info.shipType, info.isUsed, null, null, null, null, null, null, null, null)
+                .getCount();
+
+        statistics.remove(toView(info));
+
+        assertEquals(before - 1, statistics.estimate(info.shipType, info.isUsed,
+                null, null, null, null, null, null, null, null).getCount());
+        assertEquals(testsHelper.getAllShips().size() - 1, statistics.total());
+    }
+
+    private static void assertBounds(long actual, ShipCount count) {
+        assertTrue(count.getLower() + " <= " + actual, count.getLower() <= actual);
+        assertTrue(actual + " <= " + count.getUpper(), actual <= count.getUpper());
+        assertTrue(count.getLower() <= count.getCount() && count.getCount() <= count.getUpper());
+    }
+
+    private static ShipView toView(ShipInfoTest info) {
+        return new ShipView(info.id, info.name, info.planet, info.shipType, new Date(info.prodDate), info.isUsed,
+                info.speed, info.crewSize, info.rating, 0L);
+    }
+}
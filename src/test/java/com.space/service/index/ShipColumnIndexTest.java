@@ -0,0 +1,153 @@
+package com.space.service.index;
+
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipOrder;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.rating.RatingEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ShipColumnIndexTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ShipColumnIndex index;
+
+    @Before
+    public void setup() {
+        index = new ShipColumnIndex();
+        for (ShipInfoTest info : testsHelper.getAllShips()) {
+            index.put(toShip(info));
+        }
+    }
+
+    @Test
+    public void filterByShipTypeIsUsedAndRanges() {
+        BitSet matches = index.filter(null, null, ShipType.MILITARY, null, null, false,
+                0.3, null, 100, null, null, 6.0);
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByMaxRating(6.0,
+                testsHelper.getShipInfosByMinCrewSize(100,
+                        testsHelper.getShipInfosByMinSpeed(0.3,
+                                testsHelper.getShipInfosByIsUsed(false,
+                                        testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                                                testsHelper.getAllShips())))));
+        assertEquals(ids(expected), ids(index.page(matches, ShipOrder.ID, 0, 100)));
+    }
+
+    @Test
+    public void filterByNameIsCaseInsensitive() {
+        BitSet matches = index.filter("ORION", null, null, null, null, null,
+                null, null, null, null, null, null);
+
+        assertEquals(1, matches.cardinality());
+    }
+
+    @Test
+    public void pageOrderedByRatingSkipsOffset() {
+        BitSet matches = index.filter(null, null, null, null, null, null,
+                null, null, null, null, null, null);
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(2, 5,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING, new ArrayList<>(testsHelper.getAllShips())));
+        assertEquals(ids(expected), ids(index.page(matches, ShipOrder.RATING, 10, 5)));
+    }
+
+    @Test
+    public void pageAfterCursorContinuesWhereThePreviousPageStopped() {
+        BitSet matches = index.filter(null, null, null, null, null, null,
+                null, null, null, null, null, null);
+
+        List<Ship> first = index.page(matches, ShipOrder.SPEED, 0, 7);
+        ShipCursor cursor = ShipCursor.decode(ShipCursor.of(ShipOrder.SPEED, first.get(6)).encode());
+        List<Ship> second = index.page(matches, ShipOrder.SPEED, cursor, 0, 7);
+
+        assertEquals(ids(index.page(matches, ShipOrder.SPEED, 7, 7)), ids(second));
+    }
+
+    @Test
+    public void concurrentAddsOutOfIdOrderStillPageById() throws InterruptedException {
+        ShipColumnIndex concurrent = new ShipColumnIndex();
+        List<ShipInfoTest> all = testsHelper.getAllShips();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t;
+            threads.add(new Thread(() -> {
+                for (int i = all.size() - 1 - first; i >= 0; i -= 4) {
+                    synchronized (concurrent) {
+                        concurrent.put(toShip(all.get(i)));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        BitSet matches = concurrent.filter(null, null, null, null, null, null,
+                null, null, null, null, null, null);
+        List<Ship> firstPage = concurrent.page(matches, ShipOrder.ID, 0, 7);
+        ShipCursor cursor = ShipCursor.decode(ShipCursor.of(ShipOrder.ID, firstPage.get(6)).encode());
+
+        assertEquals(ids(index.page(index.filter(null, null, null, null, null, null,
+                null, null, null, null, null, null), ShipOrder.ID, 0, 100)),
+                ids(concurrent.page(matches, ShipOrder.ID, 0, 100)));
+        assertEquals(ids(concurrent.page(matches, ShipOrder.ID, 7, 7)),
+                ids(concurrent.page(matches, ShipOrder.ID, cursor, 0, 7)));
+        assertEquals(ids(index.page(index.filter(null, null, null, null, null, null,
+                null, null, null, null, null, null), ShipOrder.SPEED, 0, 100)),
+                ids(concurrent.page(matches, ShipOrder.SPEED, 0, 100)));
+    }
+
+    @Test
+    public void putReplacesAndRemoveHides() {
+        Ship ship = index.get(5L);
+        ship.setName("Renamed");
+        index.put(ship);
+        index.remove(6L);
+
+        assertEquals("Renamed", index.get(5L).getName());
+        assertNull(index.get(6L));
+        assertEquals(testsHelper.getAllShips().size() - 1, index.size());
+    }
+
+    @Test
+    public void recomputeRatingsRatesEveryShipForTheCurrentYear() {
+        RatingEngine ratingEngine = new RatingEngine();
+        Ship ship = index.get(5L);
+        ship.setRating(0.0);
+        index.put(ship);
+
+        index.recomputeRatings(ratingEngine);
+
+        for (ShipInfoTest info : testsHelper.getAllShips()) {
+            Ship rated = index.get(info.id);
+            assertEquals(ratingEngine.rate(rated.getUsed(), rated.getProdDate(), rated.getSpeed()),
+                    rated.getRating(), 0);
+        }
+    }
+
+    private static Ship toShip(ShipInfoTest info) {
+        Ship ship = new Ship(info.name, info.planet, info.shipType, new Date(info.prodDate), info.isUsed,
+                info.speed, info.crewSize, info.rating);
+        ship.setId(info.id);
+        return ship;
+    }
+
+    private static List<Long> ids(List<?> ships) {
+        List<Long> ids = new ArrayList<>();
+        for (Object ship : ships) {
+            ids.add(ship instanceof Ship ? ((Ship) ship).getId() : ((ShipInfoTest) ship).id);
+        }
+        return ids;
+    }
+}
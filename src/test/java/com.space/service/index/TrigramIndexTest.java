@@ -0,0 +1,63 @@
+package com.space.service.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @Before
+    public void setup() {
+        index = new TrigramIndex();
+        index.put(1L, "Orion III");
+        index.put(2L, "Daedalus");
+        index.put(3L, "Eagle Transporter");
+        index.put(4L, "Star Destroyer");
+        index.put(5L, "Nostromo");
+    }
+
+    @Test
+    public void searchFindsSubstringsIgnoringCase() {
+        assertEquals(Arrays.asList(4L, 5L), index.search("STR"));
+        assertEquals(Collections.singletonList(3L), index.search("transPORT"));
+    }
+
+    @Test
+    public void searchIgnoresAccentsLikeTheCollation() {
+        index.put(6L, "Andrómeda");
+
+        assertEquals(Collections.singletonList(6L), index.search("ANDROM"));
+        assertEquals(Collections.singletonList(2L), index.search("DAÉDAL"));
+        assertEquals(Collections.singletonList(5L), index.search("nöstr"));
+    }
+
+    @Test
+    public void searchVerifiesTrigramAdjacency() {
+        index.put(6L, "Rio Lion");
+
+        // both trigrams of "rion" occur in "Rio Lion", but not next to each other
+        assertEquals(Collections.singletonList(1L), index.search("rion"));
+    }
+
+    @Test
+    public void searchWithShortSubstringIsNotAnswered() {
+        assertNull(index.search("ra"));
+    }
+
+    @Test
+    public void putReplacesPreviousValueAndRemoveForgetsIt() {
+        index.put(1L, "Vorlon");
+        index.remove(2L);
+
+        assertEquals(Collections.emptyList(), index.search("orion"));
+        assertEquals(Collections.singletonList(1L), index.search("vorl"));
+        assertEquals(Collections.emptyList(), index.search("daed"));
+    }
+}
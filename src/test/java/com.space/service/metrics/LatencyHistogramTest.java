@@ -0,0 +1,44 @@
+package com.space.service.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+
+        assertEquals(100, histogram.getCount());
+        // 100µs falls into [64µs, 128µs), 50ms into [32.768ms, 65.536ms)
+        assertEquals(0.128, histogram.getPercentileMillis(0.5), 1e-9);
+        assertEquals(65.536, histogram.getPercentileMillis(0.95), 1e-9);
+        assertEquals(50, histogram.getMaxMillis(), 1e-9);
+        assertEquals(5.09, histogram.getMeanMillis(), 1e-9);
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileMillis(0.99), 0);
+        assertEquals(0, histogram.getMeanMillis(), 0);
+    }
+
+    @Test
+    public void latenciesBeyondTheLastBucketReportTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.SECONDS.toNanos(100));
+
+        assertEquals(100_000, histogram.getPercentileMillis(0.99), 1e-9);
+    }
+}
@@ -0,0 +1,56 @@
+package com.space.service.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryMetricsTest {
+
+    @Test
+    public void recordAggregatesByEndpointAndSignature() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.setSlowQueryMs(10_000);
+        metrics.setMaxSignatures(10);
+
+        for (int i = 0; i < 3; i++) {
+            QueryContext.begin("GET /rest/ships", "shipType order=RATING");
+            QueryContext.statementExecuted("select ...", 1_000);
+            QueryContext.rowsFetched(2);
+            QueryContext.rowsReturned(2);
+            metrics.record(QueryContext.end());
+        }
+        QueryContext.begin("GET /rest/ships", "- order=ID");
+        metrics.record(QueryContext.end());
+
+        List<QueryStats.View> views = metrics.snapshot();
+        assertEquals(2, views.size());
+        QueryStats.View view = views.get(0).getSignature().startsWith("shipType") ? views.get(0) : views.get(1);
+        assertEquals(3, view.getRequests());
+    }
+
+    @Test
+    public void signaturesBeyondTheLimitAreCountedTogether() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.setSlowQueryMs(10_000);
+        metrics.setMaxSignatures(1);
+
+        QueryContext.begin("GET /rest/ships", "name");
+        metrics.record(QueryContext.end());
+        QueryContext.begin("GET /rest/ships", "planet");
+        metrics.record(QueryContext.end());
+        QueryContext.begin("GET /rest/ships", "shipType");
+        metrics.record(QueryContext.end());
+
+        assertEquals(2, metrics.snapshot().size());
+    }
+
+    @Test
+    public void reportsOutsideOfARequestAreIgnored() {
+        QueryContext.statementExecuted("select 1", 1_000);
+        QueryContext.rowsFetched(1);
+
+        assertEquals(null, QueryContext.end());
+    }
+}
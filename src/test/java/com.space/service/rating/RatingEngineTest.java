@@ -0,0 +1,74 @@
+package com.space.service.rating;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class RatingEngineTest {
+
+    @Test
+    public void roundHalfUp2MatchesBigDecimal() {
+        double[] ties = {0.125, 1.005, 2.675, 0.285, 1.115, 0.0049999999999999, 0.005, 0.015, 99.995, -0.125, -1.005};
+        for (double value : ties) {
+            assertEquals(Double.toString(value), reference(value), RatingEngine.roundHalfUp2(value), 0);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            double value = random.nextInt(100_000) / 1000.0 + (random.nextBoolean() ? 0 : random.nextDouble() / 1000);
+            assertEquals(Double.toString(value), reference(value), RatingEngine.roundHalfUp2(value), 0);
+        }
+    }
+
+    @Test
+    public void rateMatchesOriginalFormula() {
+        RatingEngine engine = new RatingEngine();
+        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            boolean isUsed = random.nextBoolean();
+            int prodYear = 2800 + random.nextInt(currentYear + 1000 - 2800 + 1);
+            double speed = Math.round(random.nextDouble() * 100) / 100.0;
+
+            double expected = reference(80 * speed * (isUsed ? 0.5 : 1) / (currentYear + 1000 - prodYear + 1));
+            assertEquals(expected, engine.rate(isUsed, prodYear, speed), 0);
+        }
+    }
+
+    @Test
+    public void rateBatchMatchesSingleRatings() {
+        RatingEngine engine = new RatingEngine();
+        boolean[] isUsed = {true, false, true};
+        int[] prodYears = {2800, 3000, 3019};
+        double[] speeds = {0.5, 0.99, 0.01};
+        double[] ratings = new double[3];
+
+        engine.rate(isUsed, prodYears, speeds, ratings, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(engine.rate(isUsed[i], prodYears[i], speeds[i]), ratings[i], 0);
+        }
+    }
+
+    @Test
+    public void currentYearRefreshesOnRollover() {
+        Calendar newYear = new GregorianCalendar(2031, Calendar.JANUARY, 1);
+        AtomicLong now = new AtomicLong(newYear.getTimeInMillis() - 1);
+        RatingEngine engine = new RatingEngine(now::get);
+
+        assertEquals(2030, engine.currentYear());
+        now.set(newYear.getTimeInMillis());
+        assertEquals(2031, engine.currentYear());
+    }
+
+    private static double reference(double value) {
+        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,125 @@
+package com.space.service.stats;
+
+import com.space.controller.ShipGroupBy;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.ShipGroupStats;
+import com.space.service.validator.ShipValidator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShipRollupTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ShipRollup rollup;
+
+    @Before
+    public void setup() {
+        rollup = new ShipRollup();
+        for (ShipInfoTest info : testsHelper.getAllShips()) {
+            rollup.add(toView(info));
+        }
+    }
+
+    @Test
+    public void groupsByShipTypeUnderIsUsedFilter() {
+        List<ShipGroupStats> groups = rollup.get(ShipGroupBy.SHIP_TYPE, null, false);
+
+        assertEquals(ShipType.values().length, groups.size());
+        for (ShipGroupStats group : groups) {
+            List<ShipInfoTest> expected = testsHelper.getShipInfosByShipType((ShipType) group.getKey(),
+                    testsHelper.getShipInfosByIsUsed(false, testsHelper.getAllShips()));
+            assertEquals(expected.size(), group.getCount());
+            assertEquals(0, group.getUsed());
+            assertEquals(expected.stream().mapToDouble(ship -> ship.speed).average().getAsDouble(),
+                    group.getAvgSpeed(), 1e-9);
+            assertEquals(expected.stream().mapToDouble(ship -> ship.rating).average().getAsDouble(),
+                    group.getAvgRating(), 1e-9);
+            assertEquals(expected.stream().mapToLong(ship -> ship.crewSize).sum(), group.getTotalCrew());
+        }
+    }
+
+    @Test
+    public void singleGroupCoversEverything() {
+        List<ShipGroupStats> groups = rollup.get(ShipGroupBy.NONE, null, null);
+
+        assertEquals(1, groups.size());
+        assertNull(groups.get(0).getKey());
+        assertEquals(testsHelper.getAllShips().size(), groups.get(0).getCount());
+        assertEquals(testsHelper.getShipInfosByIsUsed(true, testsHelper.getAllShips()).size(),
+                groups.get(0).getUsed());
+    }
+
+    @Test
+    public void prodYearGroupsAreOrderedAndComplete() {
+        List<ShipGroupStats> groups = rollup.get(ShipGroupBy.PROD_YEAR, ShipType.MILITARY, null);
+
+        long total = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            if (i > 0)
+                assertTrue((Integer) groups.get(i - 1).getKey() < (Integer) groups.get(i).getKey());
+            total += groups.get(i).getCount();
+        }
+        assertEquals(testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()).size(), total);
+    }
+
+    @Test
+    public void removeUndoesAdd() {
+        ShipInfoTest info = testsHelper.getAllShips().get(0);
+        int year = ShipValidator.yearOf(info.prodDate);
+        long before = countOf(rollup.get(ShipGroupBy.PROD_YEAR, null, null), year);
+
+        rollup.remove(toView(info));
+
+        assertEquals(before - 1, countOf(rollup.get(ShipGroupBy.PROD_YEAR, null, null), year));
+    }
+
+    @Test
+    public void planetsDifferingInCaseAndAccentsShareAGroup() {
+        ShipRollup planets = new ShipRollup();
+        planets.add(view("Earth", 0.5));
+        planets.add(view("earth", 0.7));
+        planets.add(view("Éarth", 0.9));
+        planets.add(view("asteroid", 0.1));
+        planets.add(view("Zeta", 0.3));
+
+        List<ShipGroupStats> groups = planets.get(ShipGroupBy.PLANET, null, null);
+
+        // ordered as utf8_general_ci orders them, not by the capital letters first
+        assertEquals(3, groups.size());
+        assertEquals("asteroid", groups.get(0).getKey());
+        assertEquals("Earth", groups.get(1).getKey());
+        assertEquals(3, groups.get(1).getCount());
+        assertEquals(0.7, groups.get(1).getAvgSpeed(), 1e-9);
+        assertEquals("Zeta", groups.get(2).getKey());
+
+        planets.remove(view("Earth", 0.5));
+        assertEquals("earth", planets.get(ShipGroupBy.PLANET, null, null).get(1).getKey());
+    }
+
+    private static long countOf(List<ShipGroupStats> groups, Object key) {
+        for (ShipGroupStats group : groups) {
+            if (key.equals(group.getKey()))
+                return group.getCount();
+        }
+        return 0;
+    }
+
+    private static ShipView view(String planet, double speed) {
+        return new ShipView(null, "Ship", planet, ShipType.MERCHANT, new Date(), false, speed, 100, 1.0, 0L);
+    }
+
+    private static ShipView toView(ShipInfoTest info) {
+        return new ShipView(info.id, info.name, info.planet, info.shipType, new Date(info.prodDate), info.isUsed,
+                info.speed, info.crewSize, info.rating, 0L);
+    }
+}
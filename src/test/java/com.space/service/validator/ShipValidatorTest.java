@@ -0,0 +1,98 @@
+package com.space.service.validator;
+
+import com.space.exception.ShipValidationException;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShipValidatorTest {
+
+    @Test
+    public void yearOfEpochDayMatchesLocalDate() {
+        for (long day = LocalDate.of(1, 1, 1).toEpochDay(); day < LocalDate.of(4000, 1, 1).toEpochDay(); day += 17) {
+            assertEquals(LocalDate.ofEpochDay(day).getYear(), ShipValidator.yearOfEpochDay(day));
+        }
+    }
+
+    @Test
+    public void yearOfMatchesCalendarAroundNewYear() {
+        Calendar calendar = new GregorianCalendar(2999, Calendar.DECEMBER, 31, 23, 59, 59);
+        assertEquals(2999, ShipValidator.yearOf(calendar.getTimeInMillis()));
+        calendar.add(Calendar.SECOND, 1);
+        assertEquals(3000, ShipValidator.yearOf(calendar.getTimeInMillis()));
+    }
+
+    @Test
+    public void validateForCreateReportsEveryViolatedField() {
+        Ship ship = new Ship("", null, ShipType.MILITARY, date(2799), null, 1.5, 10_000, null);
+
+        try {
+            ShipValidator.validateForCreate(ship);
+            fail();
+        } catch (ShipValidationException e) {
+            List<String> fields = new ArrayList<>();
+            for (Violation violation : e.getViolations()) {
+                fields.add(violation.getField());
+            }
+            assertEquals(Arrays.asList("name", "planet", "prodDate", "speed", "crewSize"), fields);
+        }
+    }
+
+    @Test
+    public void validateForUpdateIgnoresMissingFields() {
+        Ship ship = new Ship(null, null, null, null, null, 2.0, null, null);
+
+        assertTrue(ShipValidator.validate(ship, false).isEmpty());
+    }
+
+    @Test
+    public void concurrentValidationsDoNotSeeEachOthersDates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                boolean valid = i % 2 == 0;
+                results.add(executor.submit(() -> {
+                    // an update without a date must not inherit the date of another request
+                    Ship dated = new Ship(null, null, null, date(valid ? 3000 : 2000), null, null, null, null);
+                    Ship undated = new Ship("Orion", null, null, null, null, null, null, null);
+                    return ShipValidator.validate(dated, false).isEmpty() == valid
+                            && ShipValidator.validate(undated, false).isEmpty();
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void validateForCreateDefaultsUsedToFalse() {
+        Ship ship = new Ship("Orion", "Mars", ShipType.TRANSPORT, date(3000), null, 0.5, 100, null);
+
+        ShipValidator.validateForCreate(ship);
+
+        assertFalse(ship.getUsed());
+    }
+
+    private static java.util.Date date(int year) {
+        return new GregorianCalendar(year, Calendar.JUNE, 1).getTime();
+    }
+}